@@ -15,11 +15,14 @@
  */
 package me.andre111.mambience;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.UUID;
 
 import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.condition.ConditionMemo;
 import me.andre111.mambience.config.Config;
+import me.andre111.mambience.data.loader.EventLoader;
 import me.andre111.mambience.movement.Movement;
 import me.andre111.mambience.scan.Scanner;
 import me.andre111.mambience.scan.Variables;
@@ -33,7 +36,15 @@ public final class MAPlayer {
 	private final Movement movement;
 	private final SoundPlayer soundPlayer;
 	private final MALogger logger;
-	private final HashMap<String, Integer> cooldowns;
+	private final ConditionMemo conditionMemo;
+	// number of times each trigger has been fired for this player, used as the time of the cooldowns
+	private final long[] triggerCounts;
+	// trigger count at which each event wakes up again, indexed by the event ordinals (see EventLoader)
+	// grows when events are added and is cleared when a data reload reassigns the ordinals
+	private long[] wakeTimes;
+	private int wakeTimesGeneration;
+	// scratch space for the candidate events of a trigger (see EventIndex)
+	private final BitSet eventCandidates = new BitSet();
 	
 	public MAPlayer(UUID playerUUID, Accessor accessor, MALogger logger) {
 		this.playerUUID = playerUUID;
@@ -43,7 +54,10 @@ public final class MAPlayer {
 		this.movement = new Movement(this);
 		this.soundPlayer = new SoundPlayer(accessor, logger);
 		this.logger = logger;
-		this.cooldowns = new HashMap<String, Integer>();
+		this.conditionMemo = new ConditionMemo();
+		this.triggerCounts = new long[MATrigger.VALUES.length];
+		this.wakeTimes = new long[EventLoader.getEventCount()];
+		this.wakeTimesGeneration = EventLoader.getGeneration();
 	}
 	
 	public UUID getPlayerUUID() {
@@ -67,19 +81,39 @@ public final class MAPlayer {
 	public MALogger getLogger() {
 		return logger;
 	}
+	public ConditionMemo getConditionMemo() {
+		return conditionMemo;
+	}
+	public BitSet getEventCandidates() {
+		return eventCandidates;
+	}
 	
-	public int getCooldown(String key) {
-		return cooldowns.getOrDefault(key, 0);
+	// increments and returns the count of the trigger
+	public long countTrigger(MATrigger trigger) {
+		return ++triggerCounts[trigger.ordinal()];
 	}
-	public void setCooldown(String key, int value) {
-		if(value<=0) cooldowns.remove(key);
-		else cooldowns.put(key, value);
+	
+	public boolean isCoolingDown(int event, long time) {
+		long[] wakeTimes = getWakeTimes();
+		return event < wakeTimes.length && time < wakeTimes[event];
 	}
-	public int updateCooldown(String key) {
-		int value = cooldowns.getOrDefault(key, 0)-1;
-		if(value < 0) return 0;
-		
-		cooldowns.put(key, value);
-		return value;
+	public void setCooldown(int event, long time, int cooldown) {
+		long[] wakeTimes = getWakeTimes();
+		if(event >= wakeTimes.length) wakeTimes = this.wakeTimes = Arrays.copyOf(wakeTimes, Math.max(event + 1, EventLoader.getEventCount()));
+		wakeTimes[event] = time + Math.max(cooldown, 0);
+	}
+	
+	private long[] getWakeTimes() {
+		if(wakeTimesGeneration != EventLoader.getGeneration()) {
+			wakeTimes = new long[EventLoader.getEventCount()];
+			wakeTimesGeneration = EventLoader.getGeneration();
+			
+			// restart the cooldowns of the reloaded events, so the sounds do not play all at once (see MAScheduler.addPlayer)
+			for(MATrigger trigger : MATrigger.VALUES) {
+				long time = triggerCounts[trigger.ordinal()];
+				EventLoader.forAllEvents(trigger, event -> event.init(this, time));
+			}
+		}
+		return wakeTimes;
 	}
 }
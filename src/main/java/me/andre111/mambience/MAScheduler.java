@@ -16,30 +16,41 @@
 package me.andre111.mambience;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import me.andre111.mambience.accessor.Accessor;
-import me.andre111.mambience.ambient.AmbientEvent;
 import me.andre111.mambience.config.Config;
 import me.andre111.mambience.data.loader.EventLoader;
 import me.andre111.mambience.effect.Effects;
 import me.andre111.mambience.scan.Scanner;
 
 public class MAScheduler {
+	private static final ForkJoinPool PARALLEL_POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("MAmbience Events " + thread.getPoolIndex());
+		return thread;
+	}, null, false);
+	
 	private MALogger logger;
 	
 	private long timer;
-	private Set<MAPlayer> players = new HashSet<>();
-	private Queue<Scanner> scannerQueue = new LinkedList<>();
+	// players are only added and removed by the tick, but can be looked up from any thread (see triggerEvents)
+	private Map<UUID, MAPlayer> players = new ConcurrentHashMap<>();
+	// players whose events are updated in parallel in the current tick
+	private List<MAPlayer> parallelPlayers = new ArrayList<>();
+	private PriorityQueue<ScanRequest> scannerQueue = new PriorityQueue<>(Comparator.comparingInt(ScanRequest::priority).reversed().thenComparingLong(ScanRequest::lastScan));
 
-	private boolean clearPlayers = false;
-	private List<MAPlayer> newPlayers = new ArrayList<>();
+	private volatile boolean clearPlayers = false;
+	private Queue<MAPlayer> newPlayers = new ConcurrentLinkedQueue<>();
 	
 	public MAScheduler(MALogger logger) {
 		this.logger = logger;
@@ -53,16 +64,11 @@ public class MAScheduler {
 		// initialize all events(-> cooldowns), so the sounds do not play all at once the first time
 		EventLoader.forAllEvents(event -> event.init(maplayer));
 		
-		synchronized(newPlayers) {
-			newPlayers.add(maplayer);
-		}
+		newPlayers.add(maplayer);
 	}
 	
 	public MAPlayer getPlayer(UUID player) {
-		for(MAPlayer maplayer : players) {
-			if(maplayer.getPlayerUUID().equals(player)) return maplayer;
-		}
-		return null;
+		return players.get(player);
 	}
 	
 	public void clearPlayers() {
@@ -73,34 +79,39 @@ public class MAScheduler {
 		long startTime = System.currentTimeMillis();
 		timer++;
 		
-		// clear or add players
-		synchronized(newPlayers) {
-			if(clearPlayers) {
-				players.clear();
-				clearPlayers = false;
-			}
-			
-			players.addAll(newPlayers);
-			newPlayers.clear();
+		// clear or add players, players added after the clear request are kept
+		if(clearPlayers) {
+			clearPlayers = false;
+			players.clear();
+			scannerQueue.forEach(request -> request.scanner().setQueued(false));
+			scannerQueue.clear();
+		}
+		MAPlayer newPlayer;
+		while((newPlayer = newPlayers.poll()) != null) {
+			players.put(newPlayer.getPlayerUUID(), newPlayer);
 		}
 		
 		// update players
-		Iterator<MAPlayer> iterator = players.iterator();
-		while(iterator.hasNext()) {
-			MAPlayer maplayer = iterator.next();
-			
+		parallelPlayers.clear();
+		for(MAPlayer maplayer : players.values()) {
 			// remove players
 			if(!maplayer.getAccessor().updatePlayerInstance()) {
-				iterator.remove();
+				players.remove(maplayer.getPlayerUUID(), maplayer);
 				continue;
 			}
 			
 			// update variables
 			maplayer.getVariables().update();
+			maplayer.getConditionMemo().invalidate();
 			
-			// update events
+			// update events, players allowing it are updated in parallel after all players (see triggerEventsParallel)
 			if(Config.ambientEvents().isEnabled()) {
-				triggerEvents(maplayer, MATrigger.TICK);
+				if(isParallel(maplayer)) {
+					maplayer.getVariables().computeUsed();
+					parallelPlayers.add(maplayer);
+				} else {
+					triggerEvents(maplayer, MATrigger.TICK);
+				}
 			}
 			
 			// update movement
@@ -109,28 +120,41 @@ public class MAScheduler {
 			// update sound player
 			maplayer.getSoundPlayer().update();
 			
-			// enqueue scanners requiring update
-			if(maplayer.getScanner().getLastScan()+Config.scanner().getInterval()<=timer) {
-				if(!scannerQueue.contains(maplayer.getScanner())) {
-					scannerQueue.add(maplayer.getScanner());
+			// enqueue scanners requiring update, players that left their scanned area or changed dimension are enqueued early
+			// fast moving players are prioritized
+			Scanner scanner = maplayer.getScanner();
+			if(!scanner.isQueued()) {
+				int priority = scanner.getPriority(timer);
+				if(priority > 1 || scanner.getLastScan()+scanner.getInterval(timer)<=timer) {
+					scanner.setQueued(true);
+					scannerQueue.add(new ScanRequest(scanner, priority, scanner.getLastScan()));
 				}
 			}
 			
 			// update "last tick" values
 			maplayer.getAccessor().updateLastPosition();
 		}
+		triggerEventsParallel(parallelPlayers, MATrigger.TICK);
 		long playerTime = System.currentTimeMillis();
 		
-		// update scanners 
+		// update scanners, most urgent and longest waiting first until the time budget is used up
 		int refreshed = 0;
-		int perTick = (int) Math.max(1, Math.ceil(players.size() / ((double) Config.scanner().getInterval()) * 1.5));
-		for(int i=0; i<perTick; i++) {
-			Scanner scanner = scannerQueue.poll();
-			if(scanner!=null) {
-				scanner.performScan();
-				scanner.setLastScan(timer);
-				refreshed++;
-			}
+		long scanStartTime = System.nanoTime();
+		long scanBudget = Config.scanner().getTickBudget() * 1000L;
+		List<Scanner> slicedScanners = new ArrayList<>();
+		while(!scannerQueue.isEmpty() && (refreshed == 0 || System.nanoTime()-scanStartTime < scanBudget)) {
+			Scanner scanner = scannerQueue.poll().scanner();
+			scanner.setQueued(false);
+			if(!scanner.performScan()) continue;
+			scanner.setLastScan(timer);
+			refreshed++;
+			
+			// sliced scans continue with their next slice in the following tick
+			if(scanner.isScanInProgress()) slicedScanners.add(scanner);
+		}
+		for(Scanner scanner : slicedScanners) {
+			scanner.setQueued(true);
+			scannerQueue.add(new ScanRequest(scanner, Integer.MAX_VALUE, scanner.getLastScan()));
 		}
 		long scannerTime = System.currentTimeMillis();
 		
@@ -141,6 +165,7 @@ public class MAScheduler {
 		if(timer % 20 == 0) {
 			logger.log("Refreshing "+refreshed+"/"+players.size()+" Player(s) last tick took "+(endTime-startTime)+"ms!");
 			logger.log("\tPlayers (Vars+TICK+Footsteps+Soundplayer): "+(playerTime-startTime)+"ms      Scanners: "+(scannerTime-playerTime)+"ms      Effects: "+(endTime-scannerTime)+"ms!");
+			logger.log("\tSkipped reads of unloaded chunks: "+Accessor.pollUnloadedReads());
 			
 			runSecond();
 		}
@@ -149,17 +174,23 @@ public class MAScheduler {
 	private void runSecond() {
 		long startTime = System.currentTimeMillis();
 		
+		// scans of this tick may have changed the condition results
+		for(MAPlayer maplayer : players.values()) {
+			maplayer.getConditionMemo().invalidate();
+		}
+		
 		// update events
 		if(Config.ambientEvents().isEnabled()) {
-			for(MAPlayer maplayer : players) {
-				triggerEvents(maplayer, MATrigger.SECOND);
+			for(MAPlayer maplayer : players.values()) {
+				if(!isParallel(maplayer)) triggerEvents(maplayer, MATrigger.SECOND);
 			}
+			triggerEventsParallel(parallelPlayers, MATrigger.SECOND);
 		}
 		long soundTime = System.currentTimeMillis();
 		
 		// update effects
 		if(Config.effects().isEnabled()) {
-			for(MAPlayer maplayer : players) {
+			for(MAPlayer maplayer : players.values()) {
 				Effects.update(maplayer);
 			}
 		}
@@ -168,26 +199,45 @@ public class MAScheduler {
 		logger.log("SECOND took "+(soundTime-startTime)+"ms - Effect update took "+(endTime-soundTime)+"ms!");
 	}
 	
-	public void triggerEvents(MAPlayer maplayer, String trigger) {
-		// do not trigger disabled events
-		if(!Config.ambientEvents().triggerAttackSounds()) {
-			if(trigger.equals(MATrigger.ATTACK_SWING)) return;
-			if(trigger.equals(MATrigger.ATTACK_BLOCK)) return;
-			if(trigger.equals(MATrigger.ATTACK_HIT)) return;
-		}
-		if(!Config.ambientEvents().triggerUseSounds()) {
-			if(trigger.equals(MATrigger.USE_ITEM_MAINHAND)) return;
-			if(trigger.equals(MATrigger.USE_ITEM_OFFHAND)) return;
+	private boolean isParallel(MAPlayer maplayer) {
+		return Config.ambientEvents().parallelUpdates() && maplayer.getAccessor().allowsParallelUpdates();
+	}
+	
+	// the events only read the variables computed on the main thread and the published scan results
+	// their sounds are buffered by the sound players and played on the main thread in the order of the players afterwards
+	private void triggerEventsParallel(List<MAPlayer> maplayers, MATrigger trigger) {
+		if(maplayers.isEmpty()) return;
+		
+		EventLoader.resolve(maplayers.get(0).getAccessor());
+		maplayers.forEach(maplayer -> maplayer.getSoundPlayer().setBuffered(true));
+		try {
+			PARALLEL_POOL.submit(() -> maplayers.parallelStream().forEach(maplayer -> triggerEvents(maplayer, trigger))).join();
+		} finally {
+			for(MAPlayer maplayer : maplayers) {
+				maplayer.getSoundPlayer().setBuffered(false);
+				maplayer.getSoundPlayer().update();
+			}
 		}
+	}
+	
+	public void triggerEvents(MAPlayer maplayer, MATrigger trigger) {
+		// do not trigger disabled events
+		if(!trigger.isEnabled()) return;
 		
 		// trigger events
-		for(AmbientEvent event : EventLoader.getEvents(trigger)) {
-			event.update(maplayer);
-		}
+		long time = maplayer.countTrigger(trigger);
+		EventLoader.forEachCandidate(trigger, maplayer, event -> event.update(maplayer, time));
 	}
 	
-	public void triggerEvents(UUID player, String trigger) {
+	public void triggerEvents(UUID player, MATrigger trigger) {
 		MAPlayer maplayer = getPlayer(player);
-		if(maplayer != null) triggerEvents(maplayer, trigger);
+		if(maplayer == null) return;
+		
+		// player actions happen in the middle of a tick, so the values and results of the last update can be outdated
+		maplayer.getVariables().refreshHeldItems();
+		maplayer.getConditionMemo().invalidate();
+		triggerEvents(maplayer, trigger);
 	}
+	
+	private static record ScanRequest(Scanner scanner, int priority, long lastScan) {}
 }
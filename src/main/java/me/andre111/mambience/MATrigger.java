@@ -15,16 +15,29 @@
  */
 package me.andre111.mambience;
 
-public class MATrigger {
+import me.andre111.mambience.config.Config;
+
+public enum MATrigger {
 	// implemented in universal code
-	public static final String SECOND = "SECOND";
-	public static final String TICK = "TICK";
+	SECOND,
+	TICK,
 	
 	// implemented in platform specific code
-	public static final String ATTACK_SWING = "ATTACK_SWING";
-	public static final String ATTACK_BLOCK = "ATTACK_BLOCK";
-	public static final String ATTACK_HIT = "ATTACK_HIT";
+	ATTACK_SWING,
+	ATTACK_BLOCK,
+	ATTACK_HIT,
+	
+	USE_ITEM_MAINHAND,
+	USE_ITEM_OFFHAND;
+	
+	public static final MATrigger[] VALUES = values();
 	
-	public static final String USE_ITEM_MAINHAND = "USE_ITEM_MAINHAND";
-	public static final String USE_ITEM_OFFHAND = "USE_ITEM_OFFHAND";
+	// events of disabled triggers are never updated
+	public boolean isEnabled() {
+		return switch(this) {
+		case ATTACK_SWING, ATTACK_BLOCK, ATTACK_HIT -> Config.ambientEvents().triggerAttackSounds();
+		case USE_ITEM_MAINHAND, USE_ITEM_OFFHAND -> Config.ambientEvents().triggerUseSounds();
+		default -> true;
+		};
+	}
 }
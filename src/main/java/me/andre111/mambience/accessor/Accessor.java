@@ -17,9 +17,16 @@ package me.andre111.mambience.accessor;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
-public abstract class Accessor {
+import me.andre111.mambience.config.Config;
+import me.andre111.mambience.scan.Histogram;
+import me.andre111.mambience.scan.Ids;
+
+public abstract class Accessor implements WorldReader {
+	private static final LongAdder UNLOADED_READS = new LongAdder();
+	
 	protected UUID playerUUID;
 	
 	private boolean lastValuesInitialised = false;
@@ -96,15 +103,75 @@ public abstract class Accessor {
 	public abstract String getBlock(int x, int y, int z);
 	public abstract String getBiome(int x, int y, int z);
 	public abstract String getDimension();
+	public abstract boolean isLoaded(int x, int z);
+	// height limits of the current world, top is exclusive
+	public abstract int getBottomY();
+	public abstract int getTopY();
+	// first y above the MOTION_BLOCKING_NO_LEAVES heightmap (tree canopies do not hide the sky), getTopY for unknown columns
+	public abstract int getSurfaceY(int x, int z);
+	// blocks without collision and fluid, false for unknown columns
+	public abstract boolean isOpen(int x, int y, int z);
+	
+	// changes whenever a block in the section changes, -1 if the platform does not track changes or the section is not loaded
+	public long getSectionVersion(int cx, int sy, int cz) {
+		return -1;
+	}
 	
 	public abstract int getLight(int x, int y, int z);
 	public abstract int getBlockLight(int x, int y, int z);
 	public abstract int getSkyLight(int x, int y, int z);
+	public abstract int getAmbientDarkness();
 
 	public abstract double getTemperature(int x, int y, int z);
 	
 	public abstract Stream<String> getEntities(double x, double y, double z, double xSize, double ySize, double zSize);
 	
+	// reads of unloaded chunks are skipped to never cause chunk loading (see Config.scanner().loadedChunksOnly())
+	@Override
+	public boolean isKnown(int x, int z) {
+		if(!Config.scanner().loadedChunksOnly() || isLoaded(x, z)) return true;
+		
+		countUnloadedRead();
+		return false;
+	}
+	
+	static void countUnloadedRead() {
+		UNLOADED_READS.increment();
+	}
+	
+	// returns the number of skipped reads of unloaded chunks since the last call
+	public static long pollUnloadedReads() {
+		return UNLOADED_READS.sumThenReset();
+	}
+	
+	// whether the events of this player may be updated off the main thread, all variables are computed beforehand (see Variables.computeUsed)
+	public boolean allowsParallelUpdates() {
+		return true;
+	}
+	
+	// Bulk world access methods
+	// default implementations fall back to per block access, platforms should override them when they can read chunk data directly
+	@Override
+	public void countBlocks(int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter) {
+		for(int xx=0; xx<xSize; xx++) {
+			for(int zz=0; zz<zSize; zz++) {
+				for(int yy=0; yy<ySize; yy++) {
+					counter.count(Ids.of(getBlock(x+xx, y+yy, z+zz)), 1);
+				}
+			}
+		}
+	}
+	
+	// entities are only counted on the main thread, the area is centered on the given position and excludes the player itself
+	public void countEntities(double x, double y, double z, double xSize, double ySize, double zSize, Histogram entityCount) {
+		getEntities(x, y, z, xSize, ySize, zSize).forEach(entity -> entityCount.add(Ids.of(entity), 1));
+	}
+	
+	// returns a copy of the world data in the given area that can be read from other threads, or null if not supported by the platform
+	public WorldReader createSnapshot(int x, int y, int z, int xSize, int ySize, int zSize) {
+		return null;
+	}
+	
 	// Data related methods
 	public abstract List<String> getBlockTag(String name);
 	public abstract List<String> getBiomeTag(String name);
@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.bukkit.Bukkit;
+import org.bukkit.HeightMap;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -29,6 +30,7 @@ import org.bukkit.Particle;
 import org.bukkit.SoundCategory;
 import org.bukkit.Tag;
 import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
@@ -184,11 +186,15 @@ public class AccessorBukkit extends Accessor {
 
 	@Override
 	public String getBlock(int x, int y, int z) {
+		if(!isKnown(x, z)) return "";
+
 		return player.getWorld().getBlockAt(x, y, z).getType().getKey().toString();
 	}
 
 	@Override
 	public String getBiome(int x, int y, int z) {
+		if(!isKnown(x, z)) return "";
+
 		return player.getWorld().getBiome(x, y, z).getKey().toString();
 	}
 
@@ -197,23 +203,74 @@ public class AccessorBukkit extends Accessor {
 		return player.getWorld().getName();
 	}
 
+	@Override
+	public boolean isLoaded(int x, int z) {
+		return player.getWorld().isChunkLoaded(x >> 4, z >> 4);
+	}
+
+	@Override
+	public int getBottomY() {
+		return player.getWorld().getMinHeight();
+	}
+
+	@Override
+	public int getTopY() {
+		return player.getWorld().getMaxHeight();
+	}
+
+	// the Bukkit API may only be used from the main thread
+	@Override
+	public boolean allowsParallelUpdates() {
+		return false;
+	}
+
+	@Override
+	public int getSurfaceY(int x, int z) {
+		if(!isKnown(x, z)) return getTopY();
+
+		return player.getWorld().getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING_NO_LEAVES) + 1;
+	}
+
+	@Override
+	public boolean isOpen(int x, int y, int z) {
+		if(!isKnown(x, z)) return false;
+
+		Block block = player.getWorld().getBlockAt(x, y, z);
+		return block.isPassable() && !block.isLiquid();
+	}
+
+	// the api does not expose the sky darkening directly, derive it from the light level at the top of the column of the player (always loaded)
+	@Override
+	public int getAmbientDarkness() {
+		Block top = player.getWorld().getBlockAt(player.getLocation().getBlockX(), getTopY() - 1, player.getLocation().getBlockZ());
+		return Math.max(0, top.getLightFromSky() - top.getLightLevel());
+	}
+
 	@Override
 	public int getLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+
 		return player.getWorld().getBlockAt(x, y, z).getLightLevel();
 	}
 
 	@Override
 	public int getBlockLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+
 		return player.getWorld().getBlockAt(x, y, z).getLightFromBlocks();
 	}
 
 	@Override
 	public int getSkyLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+
 		return player.getWorld().getBlockAt(x, y, z).getLightFromSky();
 	}
 
 	@Override
 	public double getTemperature(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+
 		return player.getWorld().getTemperature(x, y, z);
 	}
 
@@ -223,6 +280,12 @@ public class AccessorBukkit extends Accessor {
 		return entities.stream().map(entity -> entity.getType().getKey().toString());
 	}
 
+	// Bulk world access methods
+	@Override
+	public WorldReader createSnapshot(int x, int y, int z, int xSize, int ySize, int zSize) {
+		return new WorldSnapshotBukkit(player.getWorld(), getAmbientDarkness(), x, y, z, xSize, ySize, zSize);
+	}
+
 	// Data related methods
 	@Override
 	public List<String> getBlockTag(String name) {
@@ -25,6 +25,9 @@ import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 
 import me.andre111.mambience.MAmbience;
+import me.andre111.mambience.fabric.mixin.SimpleEntityLookupAccessor;
+import me.andre111.mambience.fabric.mixin.WorldAccessor;
+import me.andre111.mambience.scan.Histogram;
 import net.minecraft.block.BlockState;
 import net.minecraft.command.argument.ParticleEffectArgumentType;
 import net.minecraft.entity.Entity;
@@ -42,14 +45,29 @@ import net.minecraft.server.command.CommandManager;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.Heightmap;
 import net.minecraft.world.LightType;
-import net.minecraft.world.biome.Biome;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.source.BiomeCoords;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.dimension.DimensionType;
+import net.minecraft.world.entity.EntityLike;
+import net.minecraft.world.entity.EntityLookup;
+import net.minecraft.world.entity.EntityTrackingSection;
+import net.minecraft.world.entity.SectionedEntityCache;
+import net.minecraft.world.entity.SimpleEntityLookup;
 
 public abstract class AccessorFabric extends Accessor {
 	//TODO: this shouldn't keep a reference to the player, at most its UUID
 	protected PlayerEntity player;
 	
+	private final Histogram stateCounts = new Histogram();
+	// reused by isOpen, which is called for every block visited by the exposure flood fill
+	private final BlockPos.Mutable openPos = new BlockPos.Mutable();
+	
 	public AccessorFabric(UUID playerUUID) {
 		super(playerUUID);
 	}
@@ -149,6 +167,8 @@ public abstract class AccessorFabric extends Accessor {
 
 	@Override
 	public String getBlock(int x, int y, int z) {
+		if(!isKnown(x, z)) return "";
+		
 		BlockState block = player.getEntityWorld().getBlockState(new BlockPos(x, y, z));
 		
 		return block != null ? Registries.BLOCK.getId(block.getBlock()).toString() : "";
@@ -156,6 +176,8 @@ public abstract class AccessorFabric extends Accessor {
 
 	@Override
 	public String getBiome(int x, int y, int z) {
+		if(!isKnown(x, z)) return "";
+		
 		return player.getEntityWorld().getBiome(new BlockPos(x, y, z)).getKey().map(key -> key.getValue().toString()).orElse("");
 	}
 	
@@ -166,26 +188,75 @@ public abstract class AccessorFabric extends Accessor {
 		
 		return (dimensionId != null) ? dimensionId.toString() : "";
 	}
+	
+	@Override
+	public boolean isLoaded(int x, int z) {
+		return player.getEntityWorld().getChunkManager().isChunkLoaded(x >> 4, z >> 4);
+	}
+	
+	@Override
+	public int getBottomY() {
+		return player.getEntityWorld().getBottomY();
+	}
+	
+	@Override
+	public int getTopY() {
+		return player.getEntityWorld().getTopY();
+	}
+	
+	@Override
+	public int getSurfaceY(int x, int z) {
+		WorldChunk chunk = SectionReaderFabric.getChunk(player.getEntityWorld(), x >> 4, z >> 4);
+		return chunk != null ? chunk.sampleHeightmap(Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, x & 15, z & 15) + 1 : getTopY();
+	}
+	
+	@Override
+	public boolean isOpen(int x, int y, int z) {
+		if(!isKnown(x, z)) return false;
+		
+		BlockState state = player.getEntityWorld().getBlockState(openPos.set(x, y, z));
+		return !state.blocksMovement() && state.getFluidState().isEmpty();
+	}
+	
+	// sections are replaced when chunks are reloaded, so their identity is part of the version
+	@Override
+	public long getSectionVersion(int cx, int sy, int cz) {
+		WorldChunk chunk = SectionReaderFabric.getChunk(player.getEntityWorld(), cx, cz);
+		if(chunk == null) return -1;
+		
+		int index = chunk.sectionCoordToIndex(sy);
+		if(index < 0 || index >= chunk.getSectionArray().length) return 0;
+		
+		ChunkSection section = chunk.getSection(index);
+		return ((long) System.identityHashCode(section) << 32) | (((SectionSummaryFabric.Holder) section).mambience$getVersion() & 0xFFFFFFFFL);
+	}
 
 	@Override
 	public int getLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+		
 		return player.getEntityWorld().getLightLevel(new BlockPos(x, y, z));
 	}
 
 	@Override
 	public int getBlockLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+		
 		return player.getEntityWorld().getLightLevel(LightType.BLOCK, new BlockPos(x, y, z));
 	}
 
 	@Override
 	public int getSkyLight(int x, int y, int z) {
+		if(!isKnown(x, z)) return 0;
+		
 		return player.getEntityWorld().getLightLevel(LightType.SKY, new BlockPos(x, y, z));
 	}
 
 	@Override
 	public double getTemperature(int x, int y, int z) {
-		Registry<Biome> registry = player.getEntityWorld().getRegistryManager().get(RegistryKeys.BIOME);
-		return player.getEntityWorld().getBiome(new BlockPos(x, y, z)).getKey().map(key -> registry.get(key).getTemperature()).orElse(0f);
+		if(!isKnown(x, z)) return 0;
+		
+		return SectionReaderFabric.getBiomeInfo(player.getEntityWorld().getBiome(new BlockPos(x, y, z))).temperature();
 	}
 
 	@Override
@@ -194,6 +265,91 @@ public abstract class AccessorFabric extends Accessor {
 		return entities.stream().map(entity -> EntityType.getId(entity.getType()).toString());
 	}
 	
+	// Bulk world access methods
+	@Override
+	public void countBlocks(int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter) {
+		World world = player.getEntityWorld();
+		SectionReaderFabric.countBlocks((cx, sy, cz) -> {
+			WorldChunk chunk = SectionReaderFabric.getChunk(world, cx, cz);
+			if(chunk == null) return SectionReaderFabric.SectionBlocks.UNLOADED;
+			
+			int index = chunk.sectionCoordToIndex(sy);
+			return index >= 0 && index < chunk.getSectionArray().length ? SectionReaderFabric.SectionBlocks.live(chunk.getSection(index)) : null;
+		}, stateCounts, x, y, z, xSize, ySize, zSize, counter);
+	}
+	
+	@Override
+	public void countBiomes(int x, int y, int z, int xSize, int zSize, BiomeCounter counter) {
+		World world = player.getEntityWorld();
+		SectionReaderFabric.countBiomes((biomeX, biomeY, biomeZ) -> {
+			return SectionReaderFabric.getChunk(world, BiomeCoords.toChunk(biomeX), BiomeCoords.toChunk(biomeZ)) != null ? world.getBiomeForNoiseGen(biomeX, biomeY, biomeZ) : null;
+		}, x, y, z, xSize, zSize, counter);
+	}
+	
+	@Override
+	public void sumLight(int x, int y, int z, int xSize, int ySize, int zSize, LightCounter counter) {
+		World world = player.getEntityWorld();
+		SectionReaderFabric.sumLight((cx, sy, cz) -> SectionReaderFabric.getChunk(world, cx, cz) != null ? SectionReaderFabric.SectionLight.read(world, cx, sy, cz) : null, x, y, z, xSize, ySize, zSize, counter);
+	}
+	
+	@Override
+	public int getAmbientDarkness() {
+		return player.getEntityWorld().getAmbientDarkness();
+	}
+	
+	// sums the entity counts kept on the tracking sections instead of querying every single entity in the area
+	// this counts all entities in the sections intersecting the area, so the area is effectively rounded up to whole sections
+	@Override
+	public void countEntities(double x, double y, double z, double xSize, double ySize, double zSize, Histogram entityCount) {
+		EntityLookup<Entity> lookup = ((WorldAccessor) player.getEntityWorld()).mambience$getEntityLookup();
+		if(!(lookup instanceof SimpleEntityLookup)) {
+			super.countEntities(x, y, z, xSize, ySize, zSize, entityCount);
+			return;
+		}
+		
+		SectionedEntityCache<?> cache = ((SimpleEntityLookupAccessor) lookup).mambience$getCache();
+		int minX = ChunkSectionPos.getSectionCoord(MathHelper.floor(x-xSize/2.0));
+		int minY = ChunkSectionPos.getSectionCoord(MathHelper.floor(y-ySize/2.0));
+		int minZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(z-zSize/2.0));
+		int maxX = ChunkSectionPos.getSectionCoord(MathHelper.floor(x+xSize/2.0));
+		int maxY = ChunkSectionPos.getSectionCoord(MathHelper.floor(y+ySize/2.0));
+		int maxZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(z+zSize/2.0));
+		countEntities(cache, minX, minY, minZ, maxX, maxY, maxZ, entityCount);
+		
+		// like World.getOtherEntities the player itself and spectators are not counted
+		entityCount.add(EntityCensusFabric.getEntityId(player.getType()), -1);
+		for(PlayerEntity other : player.getEntityWorld().getPlayers()) {
+			if(other == player || !other.isSpectator()) continue;
+			
+			int sx = ChunkSectionPos.getSectionCoord(other.getBlockX());
+			int sy = ChunkSectionPos.getSectionCoord(other.getBlockY());
+			int sz = ChunkSectionPos.getSectionCoord(other.getBlockZ());
+			if(sx >= minX && sx <= maxX && sy >= minY && sy <= maxY && sz >= minZ && sz <= maxZ) {
+				entityCount.add(EntityCensusFabric.getEntityId(other.getType()), -1);
+			}
+		}
+	}
+	
+	private static <T extends EntityLike> void countEntities(SectionedEntityCache<T> cache, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Histogram entityCount) {
+		for(int sx = minX; sx <= maxX; sx++) {
+			for(int sy = minY; sy <= maxY; sy++) {
+				for(int sz = minZ; sz <= maxZ; sz++) {
+					// same sections as SectionedEntityCache.forEachInBox, but without its padding
+					EntityTrackingSection<T> section = cache.findTrackingSection(ChunkSectionPos.asLong(sx, sy, sz));
+					if(section == null || section.isEmpty() || !section.getStatus().shouldTrack()) continue;
+					
+					Histogram counts = ((EntityCensusFabric.Holder) section).mambience$getEntityCounts();
+					if(counts != null) entityCount.addAll(counts);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public WorldReader createSnapshot(int x, int y, int z, int xSize, int ySize, int zSize) {
+		return new WorldSnapshotFabric(player.getEntityWorld(), x, y, z, xSize, ySize, zSize);
+	}
+	
 	// Data related methods
 	@Override
 	public List<String> getBlockTag(String name) {
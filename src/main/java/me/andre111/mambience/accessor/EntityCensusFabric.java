@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.andre111.mambience.scan.Histogram;
+import me.andre111.mambience.scan.Ids;
+import net.minecraft.entity.EntityType;
+
+// entity counts by type kept up to date on every entity tracking section (see MixinEntityTrackingSection)
+public final class EntityCensusFabric {
+	private static final Map<EntityType<?>, Integer> ENTITY_IDS = new ConcurrentHashMap<>();
+	
+	public static int getEntityId(EntityType<?> type) {
+		return ENTITY_IDS.computeIfAbsent(type, t -> Ids.of(EntityType.getId(t).toString()));
+	}
+	
+	public static interface Holder {
+		// counts by interned entity type id, only modified on the thread owning the world, null if no entity was ever added
+		public Histogram mambience$getEntityCounts();
+	}
+}
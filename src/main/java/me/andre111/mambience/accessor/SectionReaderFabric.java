@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.andre111.mambience.accessor.WorldReader.BiomeCounter;
+import me.andre111.mambience.accessor.WorldReader.BlockCounter;
+import me.andre111.mambience.accessor.WorldReader.LightCounter;
+import me.andre111.mambience.config.Config;
+import me.andre111.mambience.scan.Histogram;
+import me.andre111.mambience.scan.Ids;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.LightType;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.source.BiomeAccess;
+import net.minecraft.world.biome.source.BiomeCoords;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+// shared chunk section reading code for the live Fabric accessor and the Fabric world snapshots
+final class SectionReaderFabric {
+	private static final int SECTION_VOLUME = 16 * 16 * 16;
+	private static final Map<Block, Integer> BLOCK_IDS = new ConcurrentHashMap<>();
+	private static final Map<Biome, BiomeInfo> BIOME_INFOS = new ConcurrentHashMap<>();
+	
+	// counts the block states of all sections intersecting the area by raw state id directly from the section palettes,
+	// only resolving names for the final result
+	static void countBlocks(SectionSource source, Histogram stateCounts, int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter) {
+		int maxX = x + xSize - 1;
+		int maxY = y + ySize - 1;
+		int maxZ = z + zSize - 1;
+		
+		stateCounts.clear();
+		int unknown = 0;
+		for(int cx = x >> 4; cx <= maxX >> 4; cx++) {
+			int minLX = Math.max(x, cx << 4) & 15;
+			int maxLX = Math.min(maxX, (cx << 4) + 15) & 15;
+			
+			for(int cz = z >> 4; cz <= maxZ >> 4; cz++) {
+				int minLZ = Math.max(z, cz << 4) & 15;
+				int maxLZ = Math.min(maxZ, (cz << 4) + 15) & 15;
+				
+				for(int sy = y >> 4; sy <= maxY >> 4; sy++) {
+					int minLY = Math.max(y, sy << 4) & 15;
+					int maxLY = Math.min(maxY, (sy << 4) + 15) & 15;
+					int volume = (maxLX-minLX+1) * (maxLY-minLY+1) * (maxLZ-minLZ+1);
+					
+					// sections outside of the world height are void air (same as World.getBlockState)
+					SectionBlocks section = source.getBlocks(cx, sy, cz);
+					if(section == SectionBlocks.UNLOADED) {
+						unknown += volume;
+						continue;
+					}
+					if(section == null) {
+						stateCounts.add(Block.getRawIdFromState(Blocks.VOID_AIR.getDefaultState()), volume);
+						continue;
+					}
+					
+					// uniform sections (only air, only stone, ...) are counted in one step
+					Histogram summary = section.getSummary();
+					if(summary.size() == 1) {
+						summary.forEach((rawId, amount) -> stateCounts.add(rawId, volume));
+						continue;
+					}
+					
+					// mostly covered sections start from the cached counts of the whole section and remove the blocks outside of the area
+					if(volume * 2 > SECTION_VOLUME) {
+						stateCounts.addAll(summary);
+						countOutside(section.blocks(), stateCounts, minLX, minLY, minLZ, maxLX, maxLY, maxLZ);
+					} else {
+						countRegion(section.blocks(), stateCounts, minLX, minLY, minLZ, maxLX, maxLY, maxLZ, 1);
+					}
+				}
+			}
+		}
+		
+		stateCounts.forEach((rawId, amount) -> counter.count(getBlockId(Block.getStateFromRawId(rawId).getBlock()), amount));
+		if(unknown > 0) counter.count(Ids.UNKNOWN, unknown);
+	}
+	
+	// counts the light of all sections intersecting the area by sky and block light, combined later the same way as World.getLightLevel
+	static void sumLight(LightSource source, int x, int y, int z, int xSize, int ySize, int zSize, LightCounter counter) {
+		int maxX = x + xSize - 1;
+		int maxY = y + ySize - 1;
+		int maxZ = z + zSize - 1;
+		long[] counts = new long[256];
+		
+		for(int cx = x >> 4; cx <= maxX >> 4; cx++) {
+			int minLX = Math.max(x, cx << 4) & 15;
+			int maxLX = Math.min(maxX, (cx << 4) + 15) & 15;
+			
+			for(int cz = z >> 4; cz <= maxZ >> 4; cz++) {
+				int minLZ = Math.max(z, cz << 4) & 15;
+				int maxLZ = Math.min(maxZ, (cz << 4) + 15) & 15;
+				
+				for(int sy = y >> 4; sy <= maxY >> 4; sy++) {
+					int minLY = Math.max(y, sy << 4) & 15;
+					int maxLY = Math.min(maxY, (sy << 4) + 15) & 15;
+					
+					// sections without light data or with uninitialized (uniform) arrays are added in one step
+					// unloaded sections are left out completely
+					SectionLight light = source.getLight(cx, sy, cz);
+					if(light == null) continue;
+					
+					int volume = (maxLX-minLX+1) * (maxLY-minLY+1) * (maxLZ-minLZ+1);
+					if(light.isUniform()) {
+						counts[light.getSkyLight(0, 0, 0) << 4 | light.getBlockLight(0, 0, 0)] += volume;
+						continue;
+					}
+					
+					sumLight(light, minLX, minLY, minLZ, maxLX, maxLY, maxLZ, counts);
+				}
+			}
+		}
+		
+		for(int i = 0; i < counts.length; i++) {
+			if(counts[i] != 0) counter.add(i >> 4, i & 15, counts[i]);
+		}
+	}
+	
+	// reads the nibbles directly from the light arrays (index y << 8 | z << 4 | x, two blocks per byte, see ChunkNibbleArray)
+	// the jdk vector api is still an incubator module that would need to be enabled at launch, so this uses a plain loop instead
+	private static void sumLight(SectionLight light, int minLX, int minLY, int minLZ, int maxLX, int maxLY, int maxLZ, long[] counts) {
+		byte[] skyBytes = light.skyLight() != null && !light.skyLight().isUninitialized() ? light.skyLight().asByteArray() : null;
+		byte[] blockBytes = light.blockLight() != null && !light.blockLight().isUninitialized() ? light.blockLight().asByteArray() : null;
+		int defaultSkyLight = light.getSkyLight(0, 0, 0);
+		int defaultBlockLight = light.getBlockLight(0, 0, 0);
+		
+		// without block light full rows can be counted two blocks per byte
+		boolean skyOnly = blockBytes == null && defaultBlockLight == 0 && skyBytes != null && minLX == 0 && maxLX == 15;
+		
+		for(int ly = minLY; ly <= maxLY; ly++) {
+			int skyY = light.skyLightFromAbove() ? 0 : ly;
+			
+			for(int lz = minLZ; lz <= maxLZ; lz++) {
+				int skyRow = skyY << 8 | lz << 4;
+				int blockRow = ly << 8 | lz << 4;
+				
+				if(skyOnly) {
+					for(int i = skyRow >> 1; i < (skyRow >> 1) + 8; i++) {
+						counts[(skyBytes[i] & 15) << 4]++;
+						counts[(skyBytes[i] >> 4 & 15) << 4]++;
+					}
+					continue;
+				}
+				
+				for(int lx = minLX; lx <= maxLX; lx++) {
+					int skyLight = skyBytes != null ? getNibble(skyBytes, skyRow | lx) : defaultSkyLight;
+					int blockLight = blockBytes != null ? getNibble(blockBytes, blockRow | lx) : defaultBlockLight;
+					counts[skyLight << 4 | blockLight]++;
+				}
+			}
+		}
+	}
+	
+	private static int getNibble(byte[] bytes, int index) {
+		return bytes[index >> 1] >> ((index & 1) << 2) & 15;
+	}
+	
+	// removes everything in the section except the given region, as up to six slabs around it
+	private static void countOutside(PalettedContainer<BlockState> container, Histogram stateCounts, int minLX, int minLY, int minLZ, int maxLX, int maxLY, int maxLZ) {
+		countRegion(container, stateCounts, 0, 0, 0, 15, minLY-1, 15, -1);
+		countRegion(container, stateCounts, 0, maxLY+1, 0, 15, 15, 15, -1);
+		countRegion(container, stateCounts, 0, minLY, 0, 15, maxLY, minLZ-1, -1);
+		countRegion(container, stateCounts, 0, minLY, maxLZ+1, 15, maxLY, 15, -1);
+		countRegion(container, stateCounts, 0, minLY, minLZ, minLX-1, maxLY, maxLZ, -1);
+		countRegion(container, stateCounts, maxLX+1, minLY, minLZ, 15, maxLY, maxLZ, -1);
+	}
+	
+	private static void countRegion(PalettedContainer<BlockState> container, Histogram stateCounts, int minLX, int minLY, int minLZ, int maxLX, int maxLY, int maxLZ, int sign) {
+		// neighbouring blocks are mostly identical, so only look up ids when the state changes
+		BlockState lastState = null;
+		int lastId = 0;
+		int run = 0;
+		for(int ly = minLY; ly <= maxLY; ly++) {
+			for(int lz = minLZ; lz <= maxLZ; lz++) {
+				for(int lx = minLX; lx <= maxLX; lx++) {
+					BlockState state = container.get(lx, ly, lz);
+					if(state != lastState) {
+						if(run > 0) stateCounts.add(lastId, run * sign);
+						lastState = state;
+						lastId = Block.getRawIdFromState(state);
+						run = 0;
+					}
+					run++;
+				}
+			}
+		}
+		if(run > 0) stateCounts.add(lastId, run * sign);
+	}
+	
+	// counts the 4x4 biome cells intersecting the columns, weighted by the number of columns inside the area
+	// unlike World.getBiome this does not fuzz the borders between cells (see BiomeAccess)
+	static void countBiomes(BiomeAccess.Storage storage, int x, int y, int z, int xSize, int zSize, BiomeCounter counter) {
+		int maxX = x + xSize - 1;
+		int maxZ = z + zSize - 1;
+		int biomeY = BiomeCoords.fromBlock(y);
+		
+		for(int biomeX = BiomeCoords.fromBlock(x); biomeX <= BiomeCoords.fromBlock(maxX); biomeX++) {
+			int columnsX = Math.min(maxX, BiomeCoords.toBlock(biomeX) + 3) - Math.max(x, BiomeCoords.toBlock(biomeX)) + 1;
+			
+			for(int biomeZ = BiomeCoords.fromBlock(z); biomeZ <= BiomeCoords.fromBlock(maxZ); biomeZ++) {
+				int columnsZ = Math.min(maxZ, BiomeCoords.toBlock(biomeZ) + 3) - Math.max(z, BiomeCoords.toBlock(biomeZ)) + 1;
+				
+				// storages return null for unloaded chunks
+				RegistryEntry<Biome> entry = storage.getBiomeForNoiseGen(biomeX, biomeY, biomeZ);
+				if(entry == null) {
+					counter.count(Ids.UNKNOWN, 0, columnsX * columnsZ);
+					continue;
+				}
+				
+				BiomeInfo info = getBiomeInfo(entry);
+				counter.count(info.id(), info.temperature(), columnsX * columnsZ);
+			}
+		}
+	}
+	
+	// returns null for unloaded chunks when only loaded chunks may be read, so the scan never causes chunk loading
+	static WorldChunk getChunk(World world, int cx, int cz) {
+		if(!Config.scanner().loadedChunksOnly()) return world.getChunk(cx, cz);
+		
+		WorldChunk chunk = world.getChunkManager().getWorldChunk(cx, cz);
+		if(chunk == null) Accessor.countUnloadedRead();
+		return chunk;
+	}
+	
+	static BiomeInfo getBiomeInfo(RegistryEntry<Biome> entry) {
+		return BIOME_INFOS.computeIfAbsent(entry.value(), biome -> new BiomeInfo(Ids.of(entry.getKey().map(key -> key.getValue().toString()).orElse("")), biome.getTemperature()));
+	}
+	
+	static int getBlockId(Block block) {
+		return BLOCK_IDS.computeIfAbsent(block, b -> Ids.of(Registries.BLOCK.getId(b).toString()));
+	}
+	
+	// interned biome name and base temperature, cached per biome instead of resolving the registry key for every lookup
+	static record BiomeInfo(int id, float temperature) {}
+	
+	static interface SectionSource {
+		// returns null for sections outside of the world height and UNLOADED for sections in unloaded chunks
+		public SectionBlocks getBlocks(int sectionX, int sectionY, int sectionZ);
+	}
+	
+	static interface LightSource {
+		// returns null for unloaded sections
+		public SectionLight getLight(int sectionX, int sectionY, int sectionZ);
+	}
+	
+	// light arrays of a section (either live or a copy), missing arrays use the default light level
+	// missing sky light arrays use the bottom layer of the next section above instead (same as vanilla light storage)
+	static record SectionLight(ChunkNibbleArray skyLight, boolean skyLightFromAbove, ChunkNibbleArray blockLight, int defaultSkyLight) {
+		static SectionLight read(World world, int cx, int sy, int cz) {
+			boolean hasSkyLight = world.getDimension().hasSkyLight();
+			if(sy < world.getBottomSectionCoord()) return new SectionLight(null, false, null, 0);
+			if(sy >= world.getTopSectionCoord()) return new SectionLight(null, false, null, hasSkyLight ? 15 : 0);
+			
+			ChunkNibbleArray skyLight = null;
+			boolean skyLightFromAbove = false;
+			if(hasSkyLight) {
+				skyLight = world.getLightingProvider().get(LightType.SKY).getLightSection(ChunkSectionPos.from(cx, sy, cz));
+				for(int above = sy + 1; skyLight == null && above <= world.getTopSectionCoord(); above++) {
+					skyLight = world.getLightingProvider().get(LightType.SKY).getLightSection(ChunkSectionPos.from(cx, above, cz));
+					skyLightFromAbove = true;
+				}
+			}
+			ChunkNibbleArray blockLight = world.getLightingProvider().get(LightType.BLOCK).getLightSection(ChunkSectionPos.from(cx, sy, cz));
+			
+			return new SectionLight(skyLight, skyLightFromAbove, blockLight, hasSkyLight ? 15 : 0);
+		}
+		
+		SectionLight copy() {
+			return new SectionLight(skyLight != null ? skyLight.copy() : null, skyLightFromAbove, blockLight != null ? blockLight.copy() : null, defaultSkyLight);
+		}
+		
+		boolean isUniform() {
+			return (skyLight == null || skyLight.isUninitialized()) && (blockLight == null || blockLight.isUninitialized());
+		}
+		
+		int getSkyLight(int lx, int ly, int lz) {
+			return skyLight != null ? skyLight.get(lx, skyLightFromAbove ? 0 : ly, lz) : defaultSkyLight;
+		}
+		
+		int getBlockLight(int lx, int ly, int lz) {
+			return blockLight != null ? blockLight.get(lx, ly, lz) : 0;
+		}
+	}
+	
+	// blocks of a section (either live or a copy) together with the version of the section they were read at
+	static record SectionBlocks(PalettedContainer<BlockState> blocks, ChunkSection section, int version) {
+		static final SectionBlocks UNLOADED = new SectionBlocks(null, null, 0);
+		
+		static SectionBlocks live(ChunkSection section) {
+			return new SectionBlocks(section.getBlockStateContainer(), section, ((SectionSummaryFabric.Holder) section).mambience$getVersion());
+		}
+		
+		static SectionBlocks copy(ChunkSection section) {
+			return new SectionBlocks(section.getBlockStateContainer().copy(), section, ((SectionSummaryFabric.Holder) section).mambience$getVersion());
+		}
+		
+		// returns the cached counts of the whole section, recounting them when the section was modified since
+		Histogram getSummary() {
+			SectionSummaryFabric.Holder holder = (SectionSummaryFabric.Holder) section;
+			SectionSummaryFabric summary = holder.mambience$getSummary();
+			if(summary != null && summary.version() == version) return summary.stateCounts();
+			
+			Histogram counts = new Histogram();
+			blocks.count((state, amount) -> counts.add(Block.getRawIdFromState(state), amount));
+			
+			// a summary of an outdated copy is simply never used, as its version no longer matches
+			holder.mambience$setSummary(new SectionSummaryFabric(version, counts));
+			return counts;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import me.andre111.mambience.scan.Histogram;
+
+// block state counts of a whole chunk section by raw state id, cached on the section itself (see MixinChunkSection)
+// only valid while the version matches the current version of the section, the counts are never modified once created
+public record SectionSummaryFabric(int version, Histogram stateCounts) {
+	public static interface Holder {
+		// incremented on every block change in the section
+		public int mambience$getVersion();
+		
+		public SectionSummaryFabric mambience$getSummary();
+		public void mambience$setSummary(SectionSummaryFabric summary);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import me.andre111.mambience.scan.Ids;
+
+// world data required by the scanner
+// implemented by the Accessor itself (live data, main thread only) and by snapshots, which can be read from any thread
+public interface WorldReader {
+	// false for unloaded chunks that should not be read, their blocks and biomes are reported as unknown (see Ids.UNKNOWN)
+	public default boolean isKnown(int x, int z) {
+		return true;
+	}
+	
+	public String getBiome(int x, int y, int z);
+	
+	public int getLight(int x, int y, int z);
+	public int getBlockLight(int x, int y, int z);
+	public int getSkyLight(int x, int y, int z);
+	// current darkening of the sky light (night, rain), combined light is max(blockLight, skyLight - ambientDarkness)
+	public int getAmbientDarkness();
+	
+	public double getTemperature(int x, int y, int z);
+	
+	public void countBlocks(int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter);
+	
+	// falls back to per block access, implementations should override it when they can read light data directly
+	public default void sumLight(int x, int y, int z, int xSize, int ySize, int zSize, LightCounter counter) {
+		for(int xx=0; xx<xSize; xx++) {
+			for(int zz=0; zz<zSize; zz++) {
+				if(!isKnown(x+xx, z+zz)) continue;
+				
+				for(int yy=0; yy<ySize; yy++) {
+					counter.add(getSkyLight(x+xx, y+yy, z+zz), getBlockLight(x+xx, y+yy, z+zz), 1);
+				}
+			}
+		}
+	}
+	
+	// counts the biomes of the columns at the given height
+	// falls back to per column access, implementations should override it when they can read the biome cells directly
+	public default void countBiomes(int x, int y, int z, int xSize, int zSize, BiomeCounter counter) {
+		for(int xx=0; xx<xSize; xx++) {
+			for(int zz=0; zz<zSize; zz++) {
+				counter.count(Ids.of(getBiome(x+xx, y, z+zz)), getTemperature(x+xx, y, z+zz), 1);
+			}
+		}
+	}
+	
+	public static interface BlockCounter {
+		// block is the interned id of the block name (see Ids)
+		public void count(int block, int amount);
+	}
+	
+	public static interface BiomeCounter {
+		// biome is the interned id of the biome name (see Ids)
+		public void count(int biome, double temperature, int amount);
+	}
+	
+	public static interface LightCounter {
+		// counts blocks by their sky and block light, the sky darkening is only applied when the counts are read (see ScanResult)
+		public void add(int skyLight, int blockLight, long amount);
+	}
+}
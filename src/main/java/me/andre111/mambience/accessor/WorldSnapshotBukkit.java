@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+import me.andre111.mambience.config.Config;
+import me.andre111.mambience.scan.Ids;
+
+// copy of the chunks intersecting an area, created on the main thread and safe to read from any other thread
+public class WorldSnapshotBukkit implements WorldReader {
+	private static final Material[] MATERIALS = Material.values();
+	private static final int[] MATERIAL_IDS = new int[MATERIALS.length];
+	private static final Biome[] BIOMES = Biome.values();
+	private static final int[] BIOME_IDS = new int[BIOMES.length];
+	static {
+		for(int i = 0; i < MATERIALS.length; i++) {
+			// legacy materials have no key and never appear in chunk snapshots
+			MATERIAL_IDS[i] = MATERIALS[i].isLegacy() ? Ids.UNKNOWN : Ids.of(MATERIALS[i].getKey().toString());
+		}
+		for(int i = 0; i < BIOMES.length; i++) {
+			BIOME_IDS[i] = Ids.of(BIOMES[i].getKey().toString());
+		}
+	}
+	
+	private final int minHeight;
+	private final int maxHeight;
+	private final int ambientDarkness;
+	
+	private final int minCX;
+	private final int minCZ;
+	private final int sizeCX;
+	private final int sizeCZ;
+	private final ChunkSnapshot[] chunks;
+	
+	// the sky darkening is passed in by the accessor, as the area itself might not be loaded (see AccessorBukkit.getAmbientDarkness)
+	public WorldSnapshotBukkit(World world, int ambientDarkness, int x, int y, int z, int xSize, int ySize, int zSize) {
+		minHeight = world.getMinHeight();
+		maxHeight = world.getMaxHeight();
+		this.ambientDarkness = ambientDarkness;
+		
+		minCX = x >> 4;
+		minCZ = z >> 4;
+		sizeCX = ((x + xSize - 1) >> 4) - minCX + 1;
+		sizeCZ = ((z + zSize - 1) >> 4) - minCZ + 1;
+		chunks = new ChunkSnapshot[sizeCX * sizeCZ];
+		boolean loadedOnly = Config.scanner().loadedChunksOnly();
+		for(int cx = minCX; cx < minCX + sizeCX; cx++) {
+			for(int cz = minCZ; cz < minCZ + sizeCZ; cz++) {
+				// unloaded chunks stay null and are reported as unknown
+				if(loadedOnly && !world.isChunkLoaded(cx, cz)) {
+					Accessor.countUnloadedRead();
+					continue;
+				}
+				chunks[(cx - minCX) * sizeCZ + (cz - minCZ)] = world.getChunkAt(cx, cz).getChunkSnapshot(false, true, true);
+			}
+		}
+	}
+	
+	@Override
+	public String getBiome(int x, int y, int z) {
+		ChunkSnapshot chunk = getChunk(x, z);
+		return chunk != null ? chunk.getBiome(x & 15, clampY(y), z & 15).getKey().toString() : "";
+	}
+	
+	@Override
+	public double getTemperature(int x, int y, int z) {
+		ChunkSnapshot chunk = getChunk(x, z);
+		return chunk != null ? chunk.getRawBiomeTemperature(x & 15, clampY(y), z & 15) : 0;
+	}
+	
+	// biomes are stored per 4x4x4 cell, so every cell is only read once and weighted by the number of columns inside the area
+	@Override
+	public void countBiomes(int x, int y, int z, int xSize, int zSize, BiomeCounter counter) {
+		int maxX = x + xSize - 1;
+		int maxZ = z + zSize - 1;
+		int by = clampY(y);
+		
+		for(int cellX = x >> 2; cellX <= maxX >> 2; cellX++) {
+			int columnsX = Math.min(maxX, (cellX << 2) + 3) - Math.max(x, cellX << 2) + 1;
+			
+			for(int cellZ = z >> 2; cellZ <= maxZ >> 2; cellZ++) {
+				int columnsZ = Math.min(maxZ, (cellZ << 2) + 3) - Math.max(z, cellZ << 2) + 1;
+				
+				int bx = cellX << 2;
+				int bz = cellZ << 2;
+				ChunkSnapshot chunk = getChunk(bx, bz);
+				if(chunk == null) {
+					counter.count(Ids.UNKNOWN, 0, columnsX * columnsZ);
+				} else {
+					counter.count(BIOME_IDS[chunk.getBiome(bx & 15, by, bz & 15).ordinal()], chunk.getRawBiomeTemperature(bx & 15, by, bz & 15), columnsX * columnsZ);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public int getLight(int x, int y, int z) {
+		return Math.max(getBlockLight(x, y, z), getSkyLight(x, y, z) - ambientDarkness);
+	}
+	
+	@Override
+	public int getBlockLight(int x, int y, int z) {
+		ChunkSnapshot chunk = getChunk(x, z);
+		return chunk != null && y >= minHeight && y < maxHeight ? chunk.getBlockEmittedLight(x & 15, y, z & 15) : 0;
+	}
+	
+	@Override
+	public int getSkyLight(int x, int y, int z) {
+		ChunkSnapshot chunk = getChunk(x, z);
+		return chunk != null && y >= minHeight && y < maxHeight ? chunk.getBlockSkyLight(x & 15, y, z & 15) : 0;
+	}
+	
+	@Override
+	public void countBlocks(int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter) {
+		int voidAir = MATERIAL_IDS[Material.VOID_AIR.ordinal()];
+		for(int bx = x; bx < x + xSize; bx++) {
+			for(int bz = z; bz < z + zSize; bz++) {
+				ChunkSnapshot chunk = getChunk(bx, bz);
+				if(chunk == null) {
+					counter.count(Ids.UNKNOWN, ySize);
+					continue;
+				}
+				
+				// neighbouring blocks are mostly identical, so only report when the material changes
+				int lastId = voidAir;
+				int run = 0;
+				for(int by = y; by < y + ySize; by++) {
+					int id = by >= minHeight && by < maxHeight ? MATERIAL_IDS[chunk.getBlockType(bx & 15, by, bz & 15).ordinal()] : voidAir;
+					if(id != lastId) {
+						if(run > 0) counter.count(lastId, run);
+						lastId = id;
+						run = 0;
+					}
+					run++;
+				}
+				if(run > 0) counter.count(lastId, run);
+			}
+		}
+	}
+	
+	@Override
+	public int getAmbientDarkness() {
+		return ambientDarkness;
+	}
+	
+	@Override
+	public boolean isKnown(int x, int z) {
+		return getChunk(x, z) != null;
+	}
+	
+	private ChunkSnapshot getChunk(int x, int z) {
+		int cx = (x >> 4) - minCX;
+		int cz = (z >> 4) - minCZ;
+		if(cx < 0 || cx >= sizeCX || cz < 0 || cz >= sizeCZ) return null;
+		return chunks[cx * sizeCZ + cz];
+	}
+	
+	private int clampY(int y) {
+		return Math.max(minHeight, Math.min(maxHeight - 1, y));
+	}
+}
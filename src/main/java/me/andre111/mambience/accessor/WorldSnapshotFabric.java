@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.accessor;
+
+import me.andre111.mambience.scan.Histogram;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.source.BiomeAccess;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ReadableContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+// copy of the chunk sections intersecting an area, created on the main thread and safe to read from any other thread
+public class WorldSnapshotFabric implements WorldReader {
+	private final Histogram stateCounts = new Histogram();
+	private final int bottomY;
+	private final int topY;
+	private final boolean hasSkyLight;
+	private final int ambientDarkness;
+	private final BiomeAccess biomeAccess;
+	
+	private final int minCX;
+	private final int minCZ;
+	private final int minSY;
+	private final int sizeCX;
+	private final int sizeCZ;
+	private final int sizeSY;
+	private final Section[] sections;
+	private final boolean[] loadedChunks;
+	
+	public WorldSnapshotFabric(World world, int x, int y, int z, int xSize, int ySize, int zSize) {
+		bottomY = world.getBottomY();
+		topY = world.getTopY();
+		hasSkyLight = world.getDimension().hasSkyLight();
+		ambientDarkness = world.getAmbientDarkness();
+		biomeAccess = world.getBiomeAccess().withSource(this::getBiomeForNoiseGen);
+		
+		int maxX = x + xSize - 1;
+		int maxY = y + ySize - 1;
+		int maxZ = z + zSize - 1;
+		
+		// scans read the plain biome cells (see countBiomes), so no margin is copied for the fuzzed lookups of getBiome
+		minCX = x >> 4;
+		minCZ = z >> 4;
+		minSY = MathHelper.clamp(y >> 4, world.getBottomSectionCoord(), world.getTopSectionCoord() - 1);
+		sizeCX = (maxX >> 4) - minCX + 1;
+		sizeCZ = (maxZ >> 4) - minCZ + 1;
+		sizeSY = MathHelper.clamp(maxY >> 4, world.getBottomSectionCoord(), world.getTopSectionCoord() - 1) - minSY + 1;
+		sections = new Section[sizeCX * sizeCZ * sizeSY];
+		loadedChunks = new boolean[sizeCX * sizeCZ];
+		
+		for(int cx = minCX; cx < minCX + sizeCX; cx++) {
+			for(int cz = minCZ; cz < minCZ + sizeCZ; cz++) {
+				WorldChunk chunk = SectionReaderFabric.getChunk(world, cx, cz);
+				if(chunk == null) continue;
+				loadedChunks[(cx - minCX) * sizeCZ + (cz - minCZ)] = true;
+				
+				for(int sy = minSY; sy < minSY + sizeSY; sy++) {
+					ChunkSection section = chunk.getSection(chunk.sectionCoordToIndex(sy));
+					sections[index(cx, sy, cz)] = new Section(SectionReaderFabric.SectionBlocks.copy(section), section.getBiomeContainer().slice(), SectionReaderFabric.SectionLight.read(world, cx, sy, cz).copy());
+				}
+			}
+		}
+	}
+	
+	@Override
+	public String getBiome(int x, int y, int z) {
+		RegistryEntry<Biome> biome = biomeAccess.getBiome(new BlockPos(x, y, z));
+		return biome != null ? biome.getKey().map(key -> key.getValue().toString()).orElse("") : "";
+	}
+	
+	@Override
+	public double getTemperature(int x, int y, int z) {
+		RegistryEntry<Biome> biome = biomeAccess.getBiome(new BlockPos(x, y, z));
+		return biome != null ? SectionReaderFabric.getBiomeInfo(biome).temperature() : 0;
+	}
+	
+	@Override
+	public int getLight(int x, int y, int z) {
+		return Math.max(getBlockLight(x, y, z), getSkyLight(x, y, z) - ambientDarkness);
+	}
+	
+	@Override
+	public int getBlockLight(int x, int y, int z) {
+		SectionReaderFabric.SectionLight light = getSectionLight(x >> 4, y >> 4, z >> 4);
+		return light != null ? light.getBlockLight(x & 15, y & 15, z & 15) : 0;
+	}
+	
+	@Override
+	public int getSkyLight(int x, int y, int z) {
+		SectionReaderFabric.SectionLight light = getSectionLight(x >> 4, y >> 4, z >> 4);
+		return light != null ? light.getSkyLight(x & 15, y & 15, z & 15) : 0;
+	}
+	
+	@Override
+	public int getAmbientDarkness() {
+		return ambientDarkness;
+	}
+	
+	@Override
+	public boolean isKnown(int x, int z) {
+		return isLoaded(x >> 4, z >> 4);
+	}
+	
+	@Override
+	public void countBlocks(int x, int y, int z, int xSize, int ySize, int zSize, BlockCounter counter) {
+		SectionReaderFabric.countBlocks((cx, sy, cz) -> {
+			if(!isLoaded(cx, cz)) return SectionReaderFabric.SectionBlocks.UNLOADED;
+			
+			Section section = getSection(cx, sy, cz);
+			return section != null ? section.blocks : null;
+		}, stateCounts, x, y, z, xSize, ySize, zSize, counter);
+	}
+	
+	@Override
+	public void countBiomes(int x, int y, int z, int xSize, int zSize, BiomeCounter counter) {
+		SectionReaderFabric.countBiomes(this::getBiomeForNoiseGen, x, y, z, xSize, zSize, counter);
+	}
+	
+	@Override
+	public void sumLight(int x, int y, int z, int xSize, int ySize, int zSize, LightCounter counter) {
+		SectionReaderFabric.sumLight(this::getSectionLight, x, y, z, xSize, ySize, zSize, counter);
+	}
+	
+	// sections above the world have full sky light, any other section that was not copied is dark
+	private SectionReaderFabric.SectionLight getSectionLight(int cx, int sy, int cz) {
+		if(!isLoaded(cx, cz)) return null;
+		
+		Section section = getSection(cx, sy, cz);
+		if(section != null && section.light != null) return section.light;
+		
+		return new SectionReaderFabric.SectionLight(null, false, null, hasSkyLight && (sy << 4) >= topY ? 15 : 0);
+	}
+	
+	// same clamping to the world height as Chunk.getBiomeForNoiseGen
+	private RegistryEntry<Biome> getBiomeForNoiseGen(int biomeX, int biomeY, int biomeZ) {
+		int y = MathHelper.clamp(biomeY << 2, bottomY, topY - 1);
+		int cx = MathHelper.clamp(biomeX >> 2, minCX, minCX + sizeCX - 1);
+		int sy = MathHelper.clamp(y >> 4, minSY, minSY + sizeSY - 1);
+		int cz = MathHelper.clamp(biomeZ >> 2, minCZ, minCZ + sizeCZ - 1);
+		
+		Section section = sections[index(cx, sy, cz)];
+		return section != null ? section.biomes.get(biomeX & 3, (y >> 2) & 3, biomeZ & 3) : null;
+	}
+	
+	// chunks outside of the copied area count as loaded, fuzzed biome lookups at the edges are clamped to the copied cells
+	private boolean isLoaded(int cx, int cz) {
+		if(cx < minCX || cx >= minCX + sizeCX || cz < minCZ || cz >= minCZ + sizeCZ) return true;
+		return loadedChunks[(cx - minCX) * sizeCZ + (cz - minCZ)];
+	}
+	
+	private Section getSection(int cx, int sy, int cz) {
+		if(cx < minCX || cx >= minCX + sizeCX || cz < minCZ || cz >= minCZ + sizeCZ || sy < minSY || sy >= minSY + sizeSY) return null;
+		return sections[index(cx, sy, cz)];
+	}
+	
+	private int index(int cx, int sy, int cz) {
+		return ((cx - minCX) * sizeCZ + (cz - minCZ)) * sizeSY + (sy - minSY);
+	}
+	
+	private static record Section(SectionReaderFabric.SectionBlocks blocks, ReadableContainer<RegistryEntry<Biome>> biomes, SectionReaderFabric.SectionLight light) {}
+}
@@ -15,7 +15,6 @@
  */
 package me.andre111.mambience.ambient;
 
-import java.util.List;
 import java.util.Random;
 
 import me.andre111.mambience.MAPlayer;
@@ -23,62 +22,53 @@ import me.andre111.mambience.condition.Condition;
 import me.andre111.mambience.config.Config;
 import me.andre111.mambience.sound.Sound;
 
-public final record AmbientEvent(String id, Sound[] sounds, List<Condition> conditions, List<Condition> restrictions, int cooldownMin, int cooldownMax) {
+// conditions already include the restrictions, both are compiled when loading (see ConditionCompiler)
+// the ordinal is assigned by the EventLoader and indexes the cooldowns of the players
+public final record AmbientEvent(String id, int ordinal, Sound[] sounds, Condition conditions, Condition restrictions, int cooldownMin, int cooldownMax) {
 	private static final Random RANDOM = new Random();
 	
 	public AmbientEvent {
 		// perform validation checks
 		if(id == null) throw new IllegalArgumentException("Id cannot be null");
+		if(ordinal < 0) throw new IllegalArgumentException("Ordinal cannot be negative");
 		if(sounds == null || sounds.length == 0) throw new IllegalArgumentException("No sounds defined");
-		if(conditions == null) throw new IllegalArgumentException("Conditions list cannot be null");
-		if(restrictions == null) throw new IllegalArgumentException("Restrictions list cannot be null");
+		if(conditions == null) throw new IllegalArgumentException("Conditions cannot be null");
+		if(restrictions == null) throw new IllegalArgumentException("Restrictions cannot be null");
 		if(cooldownMin < 0) throw new IllegalArgumentException("Cooldown Minimum cannot be negative");
 		if(cooldownMax < 0) throw new IllegalArgumentException("Cooldown Maximum cannot be negative");
 		if(cooldownMax < cooldownMin) throw new IllegalArgumentException("Cooldown Minimum cannot be larger than Cooldown Maximum");
 	}
 	
 	public void init(MAPlayer maplayer) {
-		setCooldown(maplayer);
+		init(maplayer, 0);
+	}
+	
+	public void init(MAPlayer maplayer, long time) {
+		setCooldown(maplayer, time);
 	}
 
-	public void update(MAPlayer maplayer) {
-		if(conditionsMet(maplayer)) {
-			if(maplayer.updateCooldown(id) <= 0) {
+	// time is the count of the trigger of this event for the player, cooldowns expire after that many triggers
+	// conditions are only checked once the cooldown has expired
+	public void update(MAPlayer maplayer, long time) {
+		if(!maplayer.isCoolingDown(ordinal, time)) {
+			if(conditions.test(maplayer)) {
 				for(Sound sound : sounds) {
 					maplayer.getSoundPlayer().playSound(sound, maplayer.getAccessor().getX(), maplayer.getAccessor().getY(), maplayer.getAccessor().getZ(), false);
 				}
-				setCooldown(maplayer);
+				setCooldown(maplayer, time);
 			}
-		} else if (Config.ambientEvents().stopSounds() && maplayer.getCooldown(id) > 0 && isRestricted(maplayer)/*(so it doesn't get cut of in so many cases?)*/) {
+		} else if (Config.ambientEvents().stopSounds() && restrictions.test(maplayer)/*(so it doesn't get cut of in so many cases?)*/) {
 			//TODO: needs fading in and out, sadly not possible with current protocol
 			//      for now disabled with config option to reenable, sound stopping without fadeout is just to abrupt
 			for(Sound sound : sounds) {
 				maplayer.getLogger().log("Stop sound "+sound.name());
-				maplayer.getAccessor().stopSound(sound.name());
+				maplayer.getSoundPlayer().stopSound(sound.name());
 			}
-			maplayer.setCooldown(id, 0);
-		}
-	}
-	
-	private boolean conditionsMet(MAPlayer maplayer) {
-		return isInConditions(maplayer) && !isRestricted(maplayer);
-	}
-	
-	private boolean isInConditions(MAPlayer maplayer) {
-		for(Condition condition : conditions) {
-			if(!condition.matches(maplayer)) return false;
-		}
-		return true;
-	}
-	
-	private boolean isRestricted(MAPlayer maplayer) {
-		for(Condition restriction : restrictions) {
-			if(restriction.matches(maplayer)) return true;
+			maplayer.setCooldown(ordinal, time, 0);
 		}
-		return false;
 	}
 	
-	private void setCooldown(MAPlayer maplayer) {
-		maplayer.setCooldown(id, cooldownMin + RANDOM.nextInt(cooldownMax - cooldownMin + 1));
+	private void setCooldown(MAPlayer maplayer, long time) {
+		maplayer.setCooldown(ordinal, time, cooldownMin + RANDOM.nextInt(cooldownMax - cooldownMin + 1));
 	}
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.ambient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.condition.ConditionBiomes;
+
+// inverted index from biome ids to the events of a trigger that require one of them (through a BIOME condition)
+// only those events and the ones without biome requirements are candidates for the biomes in the scanned area of a player
+public final class EventIndex {
+	private final List<AmbientEvent> unindexed = new ArrayList<>();
+	private final List<AmbientEvent> indexed = new ArrayList<>();
+	private final List<ConditionBiomes> indexedBiomes = new ArrayList<>();
+	
+	// indexed by the interned biome ids, built on first use, as biome tags can only be resolved once a player is in a world
+	private volatile int[][] eventsByBiome;
+	
+	public void add(AmbientEvent event, ConditionBiomes requiredBiome) {
+		if(requiredBiome != null) {
+			indexed.add(event);
+			indexedBiomes.add(requiredBiome);
+		} else {
+			unindexed.add(event);
+		}
+		eventsByBiome = null;
+	}
+	
+	public void forEachCandidate(MAPlayer player, Consumer<AmbientEvent> consumer) {
+		for(AmbientEvent event : unindexed) {
+			consumer.accept(event);
+		}
+		if(indexed.isEmpty()) return;
+		
+		int[][] index = getIndex(player.getAccessor());
+		BitSet candidates = player.getEventCandidates();
+		candidates.clear();
+		player.getScanner().getScanBiomeData().forEach((biome, count) -> {
+			int[] events = biome < index.length ? index[biome] : null;
+			if(events == null) return;
+			
+			for(int event : events) {
+				candidates.set(event);
+			}
+		});
+		for(int event = candidates.nextSetBit(0); event >= 0; event = candidates.nextSetBit(event + 1)) {
+			consumer.accept(indexed.get(event));
+		}
+	}
+	
+	// called on the main thread before candidates are collected in parallel (see EventLoader.resolve)
+	public void resolve(Accessor accessor) {
+		if(!indexed.isEmpty()) getIndex(accessor);
+	}
+	
+	private int[][] getIndex(Accessor accessor) {
+		int[][] index = eventsByBiome;
+		if(index != null) return index;
+		
+		index = new int[0][];
+		for(int event = 0; event < indexed.size(); event++) {
+			for(int biome : indexedBiomes.get(event).getBiomes(accessor)) {
+				if(biome >= index.length) index = Arrays.copyOf(index, biome + 1);
+				
+				int[] events = index[biome];
+				if(events == null) {
+					index[biome] = new int[] { event };
+				} else if(events[events.length - 1] != event) {
+					events = Arrays.copyOf(events, events.length + 1);
+					events[events.length - 1] = event;
+					index[biome] = events;
+				}
+			}
+		}
+		eventsByBiome = index;
+		return index;
+	}
+}
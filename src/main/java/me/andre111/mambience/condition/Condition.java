@@ -16,7 +16,30 @@
 package me.andre111.mambience.condition;
 
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
 
 public abstract class Condition {
+	// index into the ConditionMemo of the players, assigned when the Parser interns the condition
+	int memoIndex = -1;
+	
 	public abstract boolean matches(MAPlayer player);
+	
+	// same as matches, but interned conditions are only evaluated once per player and tick
+	public final boolean test(MAPlayer player) {
+		return memoIndex >= 0 ? player.getConditionMemo().test(player, this, memoIndex) : matches(player);
+	}
+	
+	// relative cost of matches, compiled conditions check cheaper conditions first (see ConditionCompiler)
+	public int getCost() {
+		return 1;
+	}
+	
+	// resolves tags to interned ids, otherwise done lazily by matches
+	// called on the main thread before conditions are tested in parallel (see EventLoader.resolve)
+	public void resolve(Accessor accessor) {
+	}
+	
+	// called once when the condition is loaded, conditions reading variables have to track them (see Variables.track)
+	public void trackVariables() {
+	}
 }
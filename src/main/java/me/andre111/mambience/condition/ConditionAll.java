@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.condition;
+
+import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+
+// compiled condition, every check has to return its expected value (see ConditionCompiler)
+final class ConditionAll extends Condition {
+	private final Condition[] checks;
+	private final boolean[] expected;
+	private final int cost;
+	
+	ConditionAll(Condition[] checks, boolean[] expected) {
+		this.checks = checks;
+		this.expected = expected;
+		
+		int cost = 0;
+		for(Condition check : checks) {
+			cost += check.getCost();
+		}
+		this.cost = cost;
+	}
+	
+	@Override
+	public boolean matches(MAPlayer player) {
+		for(int i = 0; i < checks.length; i++) {
+			if(checks[i].test(player) != expected[i]) return false;
+		}
+		return true;
+	}
+	
+	@Override
+	public void resolve(Accessor accessor) {
+		for(Condition check : checks) {
+			check.resolve(accessor);
+		}
+	}
+	
+	@Override
+	public int getCost() {
+		return cost;
+	}
+}
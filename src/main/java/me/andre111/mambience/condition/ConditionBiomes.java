@@ -15,17 +15,17 @@
  */
 package me.andre111.mambience.condition;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.scan.Ids;
 
 public final class ConditionBiomes extends Condition {
 	private final String biomeOrTag;
 	private final float minPercentage;
 	
-	private List<String> cachedBiomes;
+	private int[] cachedBiomes;
 	
 	public ConditionBiomes(String biomeOrTag, float minPercentage) {
 		if(biomeOrTag == null) throw new IllegalArgumentException("Biome / Biometag cannot be null");
@@ -37,27 +37,46 @@ public final class ConditionBiomes extends Condition {
 
 	@Override
 	public boolean matches(MAPlayer player) {
-		// cache actual biome names
+		// get data
+		float percentage = player.getScanner().getScanBiomePercentage(getBiomes(player.getAccessor()));
+		return percentage >= minPercentage;
+	}
+	
+	@Override
+	public void resolve(Accessor accessor) {
+		getBiomes(accessor);
+	}
+	
+	// the condition can only match when at least one of these biomes is inside the scanned area
+	public boolean requiresBiome() {
+		return minPercentage > 0;
+	}
+	
+	public int[] getBiomes(Accessor accessor) {
+		// cache actual biome ids
 		if(cachedBiomes == null) {
-			cachedBiomes = new ArrayList<>();
 			if(biomeOrTag.startsWith("#")) {
-				cachedBiomes.addAll(player.getAccessor().getBiomeTag(biomeOrTag.substring(1)));
+				cachedBiomes = Ids.of(accessor.getBiomeTag(biomeOrTag.substring(1)));
 			} else {
-				cachedBiomes.add(biomeOrTag);
+				cachedBiomes = new int[] { Ids.of(biomeOrTag) };
 			}
 		}
-		
-		// get data
-		Map<String, Integer> scanData = player.getScanner().getScanBiomeData();
-		
-		int count = 0;
-		if(scanData != null) {
-			for(String biome : cachedBiomes) {
-				count += scanData.getOrDefault(biome, 0);
-			}
-		}
-		
-		float percentage = count / (float) player.getScanner().getScanBiomeCount();
-		return percentage >= minPercentage;
+		return cachedBiomes;
+	}
+	
+	@Override
+	public int getCost() {
+		return 3;
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionBiomes other && biomeOrTag.equals(other.biomeOrTag) && minPercentage == other.minPercentage;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(biomeOrTag, minPercentage);
 	}
 }
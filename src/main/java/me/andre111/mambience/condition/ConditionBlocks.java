@@ -15,17 +15,17 @@
  */
 package me.andre111.mambience.condition;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.scan.Ids;
 
 public final class ConditionBlocks extends Condition {
 	private final String blockOrTag;
 	private final float minPercentage;
 	
-	private List<String> cachedBlocks;
+	private int[] cachedBlocks;
 	
 	public ConditionBlocks(String blockOrTag, float minPercentage) {
 		if(blockOrTag == null) throw new IllegalArgumentException("Block / Blocktag cannot be null");
@@ -37,27 +37,38 @@ public final class ConditionBlocks extends Condition {
 
 	@Override
 	public boolean matches(MAPlayer player) {
-		// cache actual block names
-		if(cachedBlocks == null) {
-			cachedBlocks = new ArrayList<>();
-			if(blockOrTag.startsWith("#")) {
-				cachedBlocks.addAll(player.getAccessor().getBlockTag(blockOrTag.substring(1)));
-			} else {
-				cachedBlocks.add(blockOrTag);
-			}
-		}
+		if(cachedBlocks == null) resolve(player.getAccessor());
 		
 		// get data
-		Map<String, Integer> scanData = player.getScanner().getScanBlockData();
+		float percentage = player.getScanner().getScanBlockPercentage(cachedBlocks);
+		return percentage >= minPercentage;
+	}
+	
+	@Override
+	public void resolve(Accessor accessor) {
+		// cache actual block ids
+		if(cachedBlocks != null) return;
 		
-		int count = 0;
-		if(scanData != null) {
-			for(String block : cachedBlocks) {
-				count += scanData.getOrDefault(block, 0);
-			}
+		if(blockOrTag.startsWith("#")) {
+			cachedBlocks = Ids.of(accessor.getBlockTag(blockOrTag.substring(1)));
+		} else {
+			cachedBlocks = new int[] { Ids.of(blockOrTag) };
 		}
-		
-		float percentage = count / (float) player.getScanner().getScanBlockCount();
-		return percentage >= minPercentage;
+	}
+	
+	@Override
+	public int getCost() {
+		return 3;
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionBlocks other && blockOrTag.equals(other.blockOrTag) && minPercentage == other.minPercentage;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(blockOrTag, minPercentage);
 	}
 }
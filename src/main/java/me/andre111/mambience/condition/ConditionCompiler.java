@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.condition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// turns the condition lists of loaded data into a single condition
+// shared instances (like the TIME_* and RAINING conditions of the Parser) are only checked once, contradicting lists fold to FALSE
+// and the remaining checks are ordered from the cheapest to the most expensive (see Condition.getCost)
+public final class ConditionCompiler {
+	// all conditions have to match and none of the restrictions may match
+	public static Condition compile(List<Condition> conditions, List<Condition> restrictions) {
+		Map<Condition, Boolean> checks = new LinkedHashMap<>();
+		for(Condition condition : conditions) {
+			checks.put(condition, true);
+		}
+		for(Condition restriction : restrictions) {
+			if(checks.get(restriction) == Boolean.TRUE) return ConditionConstant.FALSE;
+			checks.put(restriction, false);
+		}
+		
+		if(checks.isEmpty()) return ConditionConstant.TRUE;
+		if(checks.size() == 1 && checks.containsValue(true)) return checks.keySet().iterator().next();
+		
+		List<Map.Entry<Condition, Boolean>> sorted = new ArrayList<>(checks.entrySet());
+		sorted.sort(Comparator.comparingInt(entry -> entry.getKey().getCost()));
+		
+		Condition[] sortedChecks = new Condition[sorted.size()];
+		boolean[] expected = new boolean[sorted.size()];
+		for(int i = 0; i < sorted.size(); i++) {
+			sortedChecks[i] = sorted.get(i).getKey();
+			expected[i] = sorted.get(i).getValue();
+		}
+		return new ConditionAll(sortedChecks, expected);
+	}
+	
+	// at least one of the conditions has to match
+	public static Condition any(List<Condition> conditions) {
+		List<Condition> checks = new ArrayList<>(new LinkedHashSet<>(conditions));
+		
+		if(checks.isEmpty()) return ConditionConstant.FALSE;
+		if(checks.size() == 1) return checks.get(0);
+		
+		checks.sort(Comparator.comparingInt(Condition::getCost));
+		return new ConditionAny(checks.toArray(Condition[]::new));
+	}
+}
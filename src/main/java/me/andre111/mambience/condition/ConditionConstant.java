@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.condition;
+
+import me.andre111.mambience.MAPlayer;
+
+// result of compiled conditions that do not depend on the player (see ConditionCompiler)
+final class ConditionConstant extends Condition {
+	static final Condition TRUE = new ConditionConstant(true);
+	static final Condition FALSE = new ConditionConstant(false);
+	
+	private final boolean value;
+	
+	private ConditionConstant(boolean value) {
+		this.value = value;
+	}
+	
+	@Override
+	public boolean matches(MAPlayer player) {
+		return value;
+	}
+	
+	@Override
+	public int getCost() {
+		return 0;
+	}
+}
@@ -23,4 +23,20 @@ public final class ConditionDisableWind extends Condition {
 	public boolean matches(MAPlayer player) {
 		return Config.ambientEvents().disableWind();
 	}
+	
+	@Override
+	public int getCost() {
+		return 0;
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionDisableWind;
+	}
+	
+	@Override
+	public int hashCode() {
+		return ConditionDisableWind.class.hashCode();
+	}
 }
@@ -15,17 +15,17 @@
  */
 package me.andre111.mambience.condition;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.scan.Ids;
 
 public final class ConditionEntities extends Condition {
 	private final String entityOrTag;
 	private final int minCount;
 	
-	private List<String> cachedEntities;
+	private int[] cachedEntities;
 	
 	public ConditionEntities(String entityOrTag, int minCount) {
 		if(entityOrTag == null) throw new IllegalArgumentException("Entity / Entitytag cannot be null");
@@ -37,26 +37,39 @@ public final class ConditionEntities extends Condition {
 
 	@Override
 	public boolean matches(MAPlayer player) {
-		// cache actual entity names
-		if(cachedEntities == null) {
-			cachedEntities = new ArrayList<>();
-			if(entityOrTag.startsWith("#")) {
-				cachedEntities.addAll(player.getAccessor().getEntityTag(entityOrTag.substring(1)));
-			} else {
-				cachedEntities.add(entityOrTag);
-			}
-		}
+		if(cachedEntities == null) resolve(player.getAccessor());
 		
 		// get data
-		Map<String, Integer> scanData = player.getScanner().getScanEntityData();
-		
-		int count = 0;
-		if(scanData != null) {
-			for(String entity : cachedEntities) {
-				count += scanData.getOrDefault(entity, 0);
-			}
-		}
+		int count = player.getScanner().getScanEntityData().get(cachedEntities);
 		
 		return count >= minCount;
 	}
+	
+	@Override
+	public void resolve(Accessor accessor) {
+		// cache actual entity ids
+		if(cachedEntities != null) return;
+		
+		if(entityOrTag.startsWith("#")) {
+			cachedEntities = Ids.of(accessor.getEntityTag(entityOrTag.substring(1)));
+		} else {
+			cachedEntities = new int[] { Ids.of(entityOrTag) };
+		}
+	}
+	
+	@Override
+	public int getCost() {
+		return 3;
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionEntities other && entityOrTag.equals(other.entityOrTag) && minCount == other.minCount;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(entityOrTag, minCount);
+	}
 }
@@ -15,37 +15,68 @@
  */
 package me.andre111.mambience.condition;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.scan.Ids;
+import me.andre111.mambience.scan.Variables;
 
 public final class ConditionHeldItem extends Condition {
 	private final String itemOrTag;
-	private final boolean mainHand;
+	private final Variables.Slot slot;
 	
-	private List<String> cachedItems;
+	private int[] cachedItems;
 	
 	public ConditionHeldItem(String itemOrTag, boolean mainHand) {
 		if(itemOrTag == null) throw new IllegalArgumentException("Item / Itemtag cannot be null");
 		
 		this.itemOrTag = itemOrTag;
-		this.mainHand = mainHand;
+		this.slot = mainHand ? Variables.Slot.ITEM_MAIN_HAND : Variables.Slot.ITEM_OFF_HAND;
 	}
 
 	@Override
 	public boolean matches(MAPlayer player) {
-		// cache actual item names
-		if(cachedItems == null) {
-			cachedItems = new ArrayList<>();
-			if(itemOrTag.startsWith("#")) {
-				cachedItems.addAll(player.getAccessor().getItemTag(itemOrTag.substring(1)));
-			} else {
-				cachedItems.add(itemOrTag);
-			}
+		if(cachedItems == null) resolve(player.getAccessor());
+		
+		// perform check, the held item is read once per tick by the variables and again for events triggered by player actions
+		int item = (int) player.getVariables().get(slot);
+		for(int id : cachedItems) {
+			if(id == item) return true;
 		}
+		return false;
+	}
+	
+	@Override
+	public void trackVariables() {
+		Variables.track(slot, false);
+	}
+	
+	@Override
+	public void resolve(Accessor accessor) {
+		// cache actual item ids
+		if(cachedItems != null) return;
 		
-		// perform check
-		return cachedItems.contains(player.getAccessor().getHeldItem(mainHand));
+		if(itemOrTag.startsWith("#")) {
+			cachedItems = Ids.of(accessor.getItemTag(itemOrTag.substring(1)));
+		} else {
+			cachedItems = new int[] { Ids.of(itemOrTag) };
+		}
+	}
+	
+	@Override
+	public int getCost() {
+		return 2;
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionHeldItem other && itemOrTag.equals(other.itemOrTag) && slot == other.slot;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(itemOrTag, slot);
 	}
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.condition;
+
+import java.util.Arrays;
+
+import me.andre111.mambience.MAPlayer;
+
+// results of the interned conditions of one player, valid until the next invalidate (once per tick and after scans) or data reload
+public final class ConditionMemo {
+	// incremented when the Parser reassigns the memo indices
+	private static volatile int epoch = 0;
+	
+	private int memoEpoch = 0;
+	private int generation = 1;
+	private int[] generations = new int[64];
+	private boolean[] results = new boolean[64];
+	
+	public void invalidate() {
+		generation++;
+	}
+	
+	static void invalidateAll() {
+		epoch++;
+	}
+	
+	boolean test(MAPlayer player, Condition condition, int index) {
+		if(memoEpoch != epoch) {
+			memoEpoch = epoch;
+			generation++;
+		}
+		if(index >= generations.length) {
+			int size = Math.max(index + 1, generations.length * 2);
+			generations = Arrays.copyOf(generations, size);
+			results = Arrays.copyOf(results, size);
+		}
+		
+		if(generations[index] != generation) {
+			results[index] = condition.matches(player);
+			generations[index] = generation;
+		}
+		return results[index];
+	}
+}
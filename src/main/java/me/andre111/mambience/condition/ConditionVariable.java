@@ -15,15 +15,19 @@
  */
 package me.andre111.mambience.condition;
 
+import java.util.Objects;
+
 import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.scan.Ids;
+import me.andre111.mambience.scan.Variables;
 
 public class ConditionVariable extends Condition {
-	private final String variable;
+	private final Variables.Slot variable;
 	private final boolean previous;
 	
 	private final double minValue;
 	private final double maxValue;
-	private final String stringValue;
+	private final int stringValue;
 	
 	public ConditionVariable(String variable, boolean previous) {
 		this(variable, previous, 0, 0, "");
@@ -38,29 +42,39 @@ public class ConditionVariable extends Condition {
 		if(variable == null || variable.isBlank()) throw new IllegalArgumentException("Variable cannot be null/blank");
 		if(minValue > maxValue) throw new IllegalArgumentException("minValue cannot be larger than maxValue");
 		
-		this.variable = variable;
+		this.variable = Variables.Slot.byName(variable);
 		this.previous = previous;
 		
 		this.minValue = minValue;
 		this.maxValue = maxValue;
-		this.stringValue = stringValue;
+		this.stringValue = Ids.of(stringValue);
 	}
 
 	@Override
 	public boolean matches(MAPlayer player) {
-		Object value = previous ? player.getVariables().getPrevious(variable) : player.getVariables().get(variable);
+		double value = previous ? player.getVariables().getPrevious(variable) : player.getVariables().get(variable);
 		
-		if(value instanceof Boolean b) {
-			return b;
-		} else if(value instanceof Number n) {
-			double d = n.doubleValue();
-			return minValue <= d && d <= maxValue;
-		} else if(value instanceof String s) {
-			return s.equals(stringValue);
-		} else {
-			player.getLogger().error("Accessing unknown/unsupported variable: "+variable+" with value: "+value);
-			return false;
-		}
+		// comparisons with the NaN of unset values are always false
+		return switch(variable.getType()) {
+		case BOOLEAN -> value > 0;
+		case NUMBER -> minValue <= value && value <= maxValue;
+		case STRING -> value == stringValue;
+		};
+	}
+	
+	@Override
+	public void trackVariables() {
+		Variables.track(variable, previous);
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionVariable other && variable == other.variable && previous == other.previous && minValue == other.minValue && maxValue == other.maxValue && stringValue == other.stringValue;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(variable, previous, minValue, maxValue, stringValue);
 	}
-
 }
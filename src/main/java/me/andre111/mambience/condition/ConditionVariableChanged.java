@@ -15,31 +15,45 @@
  */
 package me.andre111.mambience.condition;
 
-import java.util.Objects;
-
 import me.andre111.mambience.MAPlayer;
 import me.andre111.mambience.config.Config;
+import me.andre111.mambience.scan.Variables;
 
 public class ConditionVariableChanged extends Condition {
-	private final String variable;
+	private final Variables.Slot variable;
+	private final boolean heldItem;
 	
 	public ConditionVariableChanged(String variable) {
 		if(variable == null || variable.isBlank()) throw new IllegalArgumentException("Variable cannot be null/blank");
 		
-		this.variable = variable;
+		this.variable = Variables.Slot.byName(variable);
+		this.heldItem = this.variable == Variables.Slot.ITEM_MAIN_HAND || this.variable == Variables.Slot.ITEM_OFF_HAND;
 	}
 
 	@Override
 	public boolean matches(MAPlayer player) {
 		//TODO: this works but is kind of weird at this location
-		if(variable.equals("itemMainHand") || variable.equals("itemOffHand")) {
+		if(heldItem) {
 			if(!Config.ambientEvents().triggerHeldItemSounds()) return false;
 		}
 		
-		Object value = player.getVariables().get(variable);
-		Object previousValue = player.getVariables().getPrevious(variable);
-		
-		return !Objects.equals(value, previousValue);
+		// also true for the NaN of the first update
+		return player.getVariables().get(variable) != player.getVariables().getPrevious(variable);
+	}
+	
+	@Override
+	public void trackVariables() {
+		Variables.track(variable, true);
+	}
+	
+	// conditions with the same parameters are interned by the Parser
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ConditionVariableChanged other && variable == other.variable;
+	}
+	
+	@Override
+	public int hashCode() {
+		return variable.hashCode();
 	}
-
 }
@@ -15,6 +15,9 @@
  */
 package me.andre111.mambience.condition;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.google.gson.JsonObject;
 
 import me.andre111.mambience.config.ConfigUtil;
@@ -34,7 +37,31 @@ public final class Parser {
 	
 	private static final Condition DISABLE_WIND = new ConditionDisableWind();
 	
+	// identical conditions are shared by all events and effects, so players only evaluate them once per tick (see ConditionMemo)
+	private static final Map<Condition, Condition> INTERNED = new HashMap<>();
+	
 	public static Condition parse(String name, JsonObject obj) {
+		Condition condition = create(name, obj);
+		return condition != null ? intern(condition) : null;
+	}
+	
+	// the memo indices are reassigned by the next load, shared static conditions that are not loaded again must not keep their old index
+	public static void resetInterned() {
+		for(Condition condition : INTERNED.keySet()) {
+			condition.memoIndex = -1;
+		}
+		INTERNED.clear();
+		ConditionMemo.invalidateAll();
+	}
+	
+	private static Condition intern(Condition condition) {
+		return INTERNED.computeIfAbsent(condition, c -> {
+			c.memoIndex = INTERNED.size();
+			return c;
+		});
+	}
+	
+	private static Condition create(String name, JsonObject obj) {
 		switch(name) {
 		case "TIME":
 			return new ConditionVariable("time", false, ConfigUtil.getInt(obj, "minTime", 0), ConfigUtil.getInt(obj, "maxTime", 0));
@@ -126,6 +126,14 @@ public final class Config {
 		public static final int DEFAULT_ENTITY_SIZE_X = 33;
 		public static final int DEFAULT_ENTITY_SIZE_Y = 17;
 		public static final int DEFAULT_ENTITY_SIZE_Z = 33;
+		public static final boolean DEFAULT_INCREMENTAL_SCANS = true;
+		public static final boolean DEFAULT_ASYNC_SCANS = true;
+		public static final int DEFAULT_SHARE_DISTANCE = 2;
+		public static final int DEFAULT_TICK_BUDGET = 1000;
+		public static final boolean DEFAULT_ADAPTIVE_INTERVAL = true;
+		public static final int DEFAULT_MAX_INTERVAL = 100;
+		public static final int DEFAULT_SLICE_VOLUME = 8192;
+		public static final boolean DEFAULT_LOADED_CHUNKS_ONLY = true;
 
 		private int sizeX = DEFAULT_SIZE_X;
 		private int sizeY = DEFAULT_SIZE_Y;
@@ -134,6 +142,14 @@ public final class Config {
 		private int entitySizeX = DEFAULT_ENTITY_SIZE_X;
 		private int entitySizeY = DEFAULT_ENTITY_SIZE_Y;
 		private int entitySizeZ = DEFAULT_ENTITY_SIZE_Z;
+		private boolean incrementalScans = DEFAULT_INCREMENTAL_SCANS;
+		private boolean asyncScans = DEFAULT_ASYNC_SCANS;
+		private int shareDistance = DEFAULT_SHARE_DISTANCE;
+		private int tickBudget = DEFAULT_TICK_BUDGET;
+		private boolean adaptiveInterval = DEFAULT_ADAPTIVE_INTERVAL;
+		private int maxInterval = DEFAULT_MAX_INTERVAL;
+		private int sliceVolume = DEFAULT_SLICE_VOLUME;
+		private boolean loadedChunksOnly = DEFAULT_LOADED_CHUNKS_ONLY;
 
 		public int getSizeX() {
 			return sizeX;
@@ -177,6 +193,54 @@ public final class Config {
 		public void setEntitySizeZ(int entitySizeZ) {
 			this.entitySizeZ = entitySizeZ;
 		}
+		public boolean incrementalScans() {
+			return incrementalScans;
+		}
+		public void setIncrementalScans(boolean incrementalScans) {
+			this.incrementalScans = incrementalScans;
+		}
+		public boolean asyncScans() {
+			return asyncScans;
+		}
+		public void setAsyncScans(boolean asyncScans) {
+			this.asyncScans = asyncScans;
+		}
+		public int getShareDistance() {
+			return shareDistance;
+		}
+		public void setShareDistance(int shareDistance) {
+			this.shareDistance = shareDistance;
+		}
+		public int getTickBudget() {
+			return tickBudget;
+		}
+		public void setTickBudget(int tickBudget) {
+			this.tickBudget = tickBudget;
+		}
+		public boolean adaptiveInterval() {
+			return adaptiveInterval;
+		}
+		public void setAdaptiveInterval(boolean adaptiveInterval) {
+			this.adaptiveInterval = adaptiveInterval;
+		}
+		public int getMaxInterval() {
+			return maxInterval;
+		}
+		public void setMaxInterval(int maxInterval) {
+			this.maxInterval = maxInterval;
+		}
+		public int getSliceVolume() {
+			return sliceVolume;
+		}
+		public void setSliceVolume(int sliceVolume) {
+			this.sliceVolume = sliceVolume;
+		}
+		public boolean loadedChunksOnly() {
+			return loadedChunksOnly;
+		}
+		public void setLoadedChunksOnly(boolean loadedChunksOnly) {
+			this.loadedChunksOnly = loadedChunksOnly;
+		}
 	}
 	public static class AmbientEventsConfig {
 		public static final boolean DEFAULT_ENABLED = true;
@@ -186,6 +250,7 @@ public final class Config {
 		public static final boolean DEFAULT_TRIGGER_ATTACK_SOUNDS = true;
 		public static final boolean DEFAULT_TRIGGER_USE_SOUNDS = true;
 		public static final boolean DEFAULT_TRIGGER_HELD_ITEM_SOUNDS = true;
+		public static final boolean DEFAULT_PARALLEL_UPDATES = false;
 
 		private boolean enabled = DEFAULT_ENABLED;
 		private float volume = DEFAULT_VOLUME;
@@ -194,6 +259,7 @@ public final class Config {
 		private boolean triggerAttackSounds = DEFAULT_TRIGGER_ATTACK_SOUNDS;
 		private boolean triggerUseSounds = DEFAULT_TRIGGER_USE_SOUNDS;
 		private boolean triggerHeldItemSounds = DEFAULT_TRIGGER_HELD_ITEM_SOUNDS;
+		private boolean parallelUpdates = DEFAULT_PARALLEL_UPDATES;
 
 		public boolean isEnabled() {
 			return enabled;
@@ -237,6 +303,12 @@ public final class Config {
 		public void setTriggerHeldItemSounds(boolean triggerHeldItemSounds) {
 			this.triggerHeldItemSounds = triggerHeldItemSounds;
 		}
+		public boolean parallelUpdates() {
+			return parallelUpdates;
+		}
+		public void setParallelUpdates(boolean parallelUpdates) {
+			this.parallelUpdates = parallelUpdates;
+		}
 	}
 	public static class EffectsConfig {
 		public static final boolean DEFAULT_ENABLED = true;
@@ -33,6 +33,7 @@ public class ConfigUtil {
 		for(int i=0; i<array.size(); i++) {
 			Condition condition = loadCondition(logger, array.get(i).getAsJsonObject());
 			if(condition != null) {
+				condition.trackVariables();
 				conditions.add(condition);
 			} else {
 				logger.log("Warning: Ignored unknown condition: "+array.get(i));
@@ -27,8 +27,10 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import me.andre111.mambience.MAmbience;
+import me.andre111.mambience.condition.Parser;
 import me.andre111.mambience.data.Data;
 import me.andre111.mambience.data.DataLocator;
+import me.andre111.mambience.scan.Variables;
 
 public class DataLoader {
 	public static void reload(DataLocator locator) {
@@ -36,6 +38,8 @@ public class DataLoader {
 		MaterialLoader.reset();
 		EffectLoader.reset();
 		EventLoader.reset();
+		Variables.resetTracked();
+		Parser.resetInterned();
 		
 		// load new data
 		loadEntries(locator, "ma_materials", MaterialLoader::loadMaterial);
@@ -22,6 +22,7 @@ import com.google.gson.JsonObject;
 import me.andre111.mambience.MALogger;
 import me.andre111.mambience.MAmbience;
 import me.andre111.mambience.condition.Condition;
+import me.andre111.mambience.condition.ConditionCompiler;
 import me.andre111.mambience.config.ConfigUtil;
 import me.andre111.mambience.effect.Effect;
 import me.andre111.mambience.effect.Effects;
@@ -47,6 +48,6 @@ public final class EffectLoader {
 		List<Condition> conditions = ConfigUtil.loadConditions(logger, obj.get("conditions").getAsJsonArray());
 		List<Condition> restrictions = ConfigUtil.loadConditions(logger, obj.get("restrictions").getAsJsonArray());
 		
-		return new Effect(type, parameters, block, blockAbove, blockBelow, chance, conditions, restrictions);
+		return new Effect(type, parameters, block, blockAbove, blockBelow, chance, ConditionCompiler.compile(conditions, restrictions));
 	}
 }
@@ -15,55 +15,136 @@
  */
 package me.andre111.mambience.data.loader;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.function.Consumer;
 
 import com.google.gson.JsonObject;
 
-import io.netty.util.internal.shaded.org.jctools.queues.MessagePassingQueue.Consumer;
 import me.andre111.mambience.MALogger;
+import me.andre111.mambience.MAPlayer;
+import me.andre111.mambience.MATrigger;
 import me.andre111.mambience.MAmbience;
+import me.andre111.mambience.accessor.Accessor;
 import me.andre111.mambience.ambient.AmbientEvent;
+import me.andre111.mambience.ambient.EventIndex;
 import me.andre111.mambience.condition.Condition;
+import me.andre111.mambience.condition.ConditionBiomes;
+import me.andre111.mambience.condition.ConditionCompiler;
 import me.andre111.mambience.config.Config;
 import me.andre111.mambience.config.ConfigUtil;
 import me.andre111.mambience.sound.Sound;
 
 public final class EventLoader {
-	private static final Map<String, Set<AmbientEvent>> EVENTS = new HashMap<>();
+	private static final AmbientEvent[] NO_EVENTS = new AmbientEvent[0];
 	
-	public static Set<AmbientEvent> getEvents(String trigger) {
-		return EVENTS.getOrDefault(trigger, Set.of());
+	// indexed by the trigger ordinals
+	private static final AmbientEvent[][] EVENTS = new AmbientEvent[MATrigger.VALUES.length][];
+	private static final EventIndex[] INDEXES = new EventIndex[MATrigger.VALUES.length];
+	private static int eventCount = 0;
+	// incremented on every reset, as the event ordinals are reassigned by the following loads
+	private static int generation = 0;
+	private static boolean resolved = false;
+	static {
+		reset();
+	}
+	
+	// returns no events for disabled triggers
+	public static AmbientEvent[] getEvents(MATrigger trigger) {
+		return trigger.isEnabled() ? EVENTS[trigger.ordinal()] : NO_EVENTS;
+	}
+	
+	// skips events whose required biomes are not in the scanned area of the player (see EventIndex)
+	// events stopping their sounds need to be updated even when their conditions fail, so all of them are checked in that case
+	public static void forEachCandidate(MATrigger trigger, MAPlayer player, Consumer<AmbientEvent> consumer) {
+		if(!trigger.isEnabled()) return;
+		
+		if(Config.ambientEvents().stopSounds()) {
+			for(AmbientEvent event : EVENTS[trigger.ordinal()]) {
+				consumer.accept(event);
+			}
+			return;
+		}
+		
+		INDEXES[trigger.ordinal()].forEachCandidate(player, consumer);
+	}
+	
+	// number of loaded events, their ordinals are dense in [0, eventCount)
+	public static int getEventCount() {
+		return eventCount;
+	}
+	
+	public static int getGeneration() {
+		return generation;
+	}
+	
+	// resolves all tags of the events and indexes once, so events can then be updated off the main thread
+	public static void resolve(Accessor accessor) {
+		if(resolved) return;
+		
+		forAllEvents(event -> {
+			event.conditions().resolve(accessor);
+			event.restrictions().resolve(accessor);
+		});
+		for(EventIndex index : INDEXES) {
+			index.resolve(accessor);
+		}
+		resolved = true;
+	}
+	
+	// includes the events of disabled triggers
+	public static void forAllEvents(MATrigger trigger, Consumer<AmbientEvent> consumer) {
+		for(AmbientEvent event : EVENTS[trigger.ordinal()]) {
+			consumer.accept(event);
+		}
 	}
 	
 	public static void forAllEvents(Consumer<AmbientEvent> consumer) {
-		for(Set<AmbientEvent> set : EVENTS.values()) {
-			for(AmbientEvent event : set) {
+		for(AmbientEvent[] events : EVENTS) {
+			for(AmbientEvent event : events) {
 				consumer.accept(event);
 			}
 		}
 	}
 	
 	public static void reset() {
-		EVENTS.clear();
+		for(MATrigger trigger : MATrigger.VALUES) {
+			EVENTS[trigger.ordinal()] = NO_EVENTS;
+			INDEXES[trigger.ordinal()] = new EventIndex();
+		}
+		eventCount = 0;
+		generation++;
+		resolved = false;
 	}
 	
 	public static void loadEvent(String id, JsonObject obj) {
-		String trigger = ConfigUtil.getString(obj, "trigger", "SECOND");
+		MATrigger trigger = MATrigger.valueOf(ConfigUtil.getString(obj, "trigger", "SECOND"));
 		
-		EVENTS.computeIfAbsent(trigger, k -> new HashSet<>()).add(loadEvent(MAmbience.getLogger(), id, obj));
+		MALogger logger = MAmbience.getLogger();
+		List<Condition> conditions = ConfigUtil.loadConditions(logger, obj.get("conditions").getAsJsonArray());
+		AmbientEvent event = loadEvent(logger, id, eventCount, obj, conditions);
+		eventCount++;
+		
+		AmbientEvent[] events = EVENTS[trigger.ordinal()];
+		events = Arrays.copyOf(events, events.length + 1);
+		events[events.length - 1] = event;
+		EVENTS[trigger.ordinal()] = events;
+		INDEXES[trigger.ordinal()].add(event, getRequiredBiome(conditions));
+	}
+	
+	private static ConditionBiomes getRequiredBiome(List<Condition> conditions) {
+		for(Condition condition : conditions) {
+			if(condition instanceof ConditionBiomes biomes && biomes.requiresBiome()) return biomes;
+		}
+		return null;
 	}
 	
-	private static AmbientEvent loadEvent(MALogger logger, String id, JsonObject obj) {
+	private static AmbientEvent loadEvent(MALogger logger, String id, int ordinal, JsonObject obj, List<Condition> conditions) {
 		Sound[] sounds = ConfigUtil.loadSounds(obj.get("sound"), Config.ambientEvents().getVolume());
-		List<Condition> conditions = ConfigUtil.loadConditions(logger, obj.get("conditions").getAsJsonArray());
 		List<Condition> restrictions = ConfigUtil.loadConditions(logger, obj.get("restrictions").getAsJsonArray());
 		int cooldownMin = ConfigUtil.getInt(obj, "cooldownMin", 1);
 		int cooldownMax = ConfigUtil.getInt(obj, "cooldownMax", 1);
 		
-		return new AmbientEvent(id, sounds, conditions, restrictions, cooldownMin, cooldownMax);
+		return new AmbientEvent(id, ordinal, sounds, ConditionCompiler.compile(conditions, restrictions), ConditionCompiler.any(restrictions), cooldownMin, cooldownMax);
 	}
 }
@@ -15,8 +15,6 @@
  */
 package me.andre111.mambience.effect;
 
-import java.util.List;
-
 import me.andre111.mambience.MAPlayer;
 import me.andre111.mambience.condition.Condition;
 import me.andre111.mambience.effect.instance.DustWind;
@@ -24,7 +22,8 @@ import me.andre111.mambience.effect.instance.FallingLeaves;
 import me.andre111.mambience.effect.instance.Fireflies;
 import me.andre111.mambience.effect.instance.FlameJet;
 
-public final record Effect(String type, String[] parameters, String block, String blockAbove, String blockBelow, double chance, List<Condition> conditions, List<Condition> restrictions) {
+// conditions already include the restrictions, they are compiled when loading (see ConditionCompiler)
+public final record Effect(String type, String[] parameters, String block, String blockAbove, String blockBelow, double chance, Condition conditions) {
 	
 	public void update(MAPlayer maplayer, String block, int x, int y, int z) {
 		if(conditionsMet(maplayer, block, x, y, z)) {
@@ -60,13 +59,6 @@ public final record Effect(String type, String[] parameters, String block, Strin
 		if(!blockAbove.isEmpty() && !maplayer.getAccessor().getBlock(x, y+1, z).equals(blockAbove)) return false;
 		if(!blockBelow.isEmpty() && !maplayer.getAccessor().getBlock(x, y-1, z).equals(blockBelow)) return false;
 		
-		for(Condition condition : conditions) {
-			if(!condition.matches(maplayer)) return false;
-		}
-		for(Condition restriction : restrictions) {
-			if(restriction.matches(maplayer)) return false;
-		}
-		
-		return true;
+		return conditions.test(maplayer);
 	}
 }
@@ -93,6 +93,12 @@ public class ConfigScreen implements ModMenuApi {
 						.startBooleanToggle(Text.translatable("mambience.config.ambient.trigger.held_item"), Config.ambientEvents().triggerHeldItemSounds())
 						.setDefaultValue(Config.AmbientEventsConfig.DEFAULT_TRIGGER_HELD_ITEM_SOUNDS)
 						.setSaveConsumer(Config.ambientEvents()::setTriggerHeldItemSounds)
+						.build())
+				.addEntry(entryBuilder
+						.startBooleanToggle(Text.translatable("mambience.config.ambient.parallel"), Config.ambientEvents().parallelUpdates())
+						.setTooltip(Text.translatable("mambience.config.ambient.parallel.tooltip"))
+						.setDefaultValue(Config.AmbientEventsConfig.DEFAULT_PARALLEL_UPDATES)
+						.setSaveConsumer(Config.ambientEvents()::setParallelUpdates)
 						.build());
 			
 			// Visual Effects
@@ -218,6 +224,62 @@ public class ConfigScreen implements ModMenuApi {
 						.setMin(3)
 						.setMax(65)
 						.setSaveConsumer(Config.scanner()::setEntitySizeZ)
+						.build())
+				.addEntry(entryBuilder
+						.startBooleanToggle(Text.translatable("mambience.config.scanner.incremental"), Config.scanner().incrementalScans())
+						.setTooltip(Text.translatable("mambience.config.scanner.incremental.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_INCREMENTAL_SCANS)
+						.setSaveConsumer(Config.scanner()::setIncrementalScans)
+						.build())
+				.addEntry(entryBuilder
+						.startBooleanToggle(Text.translatable("mambience.config.scanner.async"), Config.scanner().asyncScans())
+						.setTooltip(Text.translatable("mambience.config.scanner.async.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_ASYNC_SCANS)
+						.setSaveConsumer(Config.scanner()::setAsyncScans)
+						.build())
+				.addEntry(entryBuilder
+						.startIntField(Text.translatable("mambience.config.scanner.sharedistance"), Config.scanner().getShareDistance())
+						.setTooltip(Text.translatable("mambience.config.scanner.sharedistance.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_SHARE_DISTANCE)
+						.setMin(-1)
+						.setMax(16)
+						.setSaveConsumer(Config.scanner()::setShareDistance)
+						.build())
+				.addEntry(entryBuilder
+						.startIntField(Text.translatable("mambience.config.scanner.tickbudget"), Config.scanner().getTickBudget())
+						.setTooltip(Text.translatable("mambience.config.scanner.tickbudget.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_TICK_BUDGET)
+						.setMin(100)
+						.setMax(50000)
+						.setSaveConsumer(Config.scanner()::setTickBudget)
+						.build())
+				.addEntry(entryBuilder
+						.startBooleanToggle(Text.translatable("mambience.config.scanner.adaptive"), Config.scanner().adaptiveInterval())
+						.setTooltip(Text.translatable("mambience.config.scanner.adaptive.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_ADAPTIVE_INTERVAL)
+						.setSaveConsumer(Config.scanner()::setAdaptiveInterval)
+						.build())
+				.addEntry(entryBuilder
+						.startIntField(Text.translatable("mambience.config.scanner.maxinterval"), Config.scanner().getMaxInterval())
+						.setTooltip(Text.translatable("mambience.config.scanner.maxinterval.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_MAX_INTERVAL)
+						.setMin(1)
+						.setMax(1200)
+						.setSaveConsumer(Config.scanner()::setMaxInterval)
+						.build())
+				.addEntry(entryBuilder
+						.startIntField(Text.translatable("mambience.config.scanner.slicevolume"), Config.scanner().getSliceVolume())
+						.setTooltip(Text.translatable("mambience.config.scanner.slicevolume.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_SLICE_VOLUME)
+						.setMin(512)
+						.setMax(300000)
+						.setSaveConsumer(Config.scanner()::setSliceVolume)
+						.build())
+				.addEntry(entryBuilder
+						.startBooleanToggle(Text.translatable("mambience.config.scanner.loadedonly"), Config.scanner().loadedChunksOnly())
+						.setTooltip(Text.translatable("mambience.config.scanner.loadedonly.tooltip"))
+						.setDefaultValue(Config.ScannerConfig.DEFAULT_LOADED_CHUNKS_ONLY)
+						.setSaveConsumer(Config.scanner()::setLoadedChunksOnly)
 						.build());
 
 			return builder.build();
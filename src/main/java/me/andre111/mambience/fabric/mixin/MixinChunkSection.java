@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.fabric.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import me.andre111.mambience.accessor.SectionSummaryFabric;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.world.chunk.ChunkSection;
+
+@Mixin(ChunkSection.class)
+public abstract class MixinChunkSection implements SectionSummaryFabric.Holder {
+	@Unique
+	private volatile int mambience$version;
+	@Unique
+	private volatile SectionSummaryFabric mambience$summary;
+	
+	@Inject(at = @At(value = "HEAD"), method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;")
+	private void setBlockState(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> cir) {
+		mambience$version++;
+	}
+	
+	@Inject(at = @At(value = "HEAD"), method = "readDataPacket(Lnet/minecraft/network/PacketByteBuf;)V")
+	private void readDataPacket(PacketByteBuf buf, CallbackInfo ci) {
+		mambience$version++;
+	}
+	
+	@Override
+	public int mambience$getVersion() {
+		return mambience$version;
+	}
+	
+	@Override
+	public SectionSummaryFabric mambience$getSummary() {
+		return mambience$summary;
+	}
+	
+	@Override
+	public void mambience$setSummary(SectionSummaryFabric summary) {
+		mambience$summary = summary;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.fabric.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import me.andre111.mambience.accessor.EntityCensusFabric;
+import me.andre111.mambience.scan.Histogram;
+import net.minecraft.entity.Entity;
+import net.minecraft.world.entity.EntityLike;
+import net.minecraft.world.entity.EntityTrackingSection;
+
+@Mixin(EntityTrackingSection.class)
+public abstract class MixinEntityTrackingSection<T extends EntityLike> implements EntityCensusFabric.Holder {
+	// only created once the first entity enters the section
+	@Unique
+	private Histogram mambience$entityCounts;
+	
+	// entities moving between sections are removed from the old and added to the new one
+	@Inject(at = @At(value = "HEAD"), method = "add(Lnet/minecraft/world/entity/EntityLike;)V")
+	private void add(T entity, CallbackInfo ci) {
+		if(entity instanceof Entity e) {
+			if(mambience$entityCounts == null) mambience$entityCounts = new Histogram(8);
+			mambience$entityCounts.add(EntityCensusFabric.getEntityId(e.getType()), 1);
+		}
+	}
+	
+	@Inject(at = @At(value = "RETURN"), method = "remove(Lnet/minecraft/world/entity/EntityLike;)Z")
+	private void remove(T entity, CallbackInfoReturnable<Boolean> cir) {
+		if(cir.getReturnValueZ() && mambience$entityCounts != null && entity instanceof Entity e) {
+			mambience$entityCounts.add(EntityCensusFabric.getEntityId(e.getType()), -1);
+		}
+	}
+	
+	@Override
+	public Histogram mambience$getEntityCounts() {
+		return mambience$entityCounts;
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+import java.util.Arrays;
+
+import me.andre111.mambience.accessor.Accessor;
+
+// exposure of a player to the sky, based on the MOTION_BLOCKING_NO_LEAVES heightmap and a bounded flood fill through open blocks
+// results are reused while the player moves less than MAX_MOVE blocks and no block in the sections around it changes
+final class Exposure {
+	private static final int RADIUS = 8;
+	private static final int SIZE = RADIUS * 2 + 1;
+	private static final int MAX_VISITED = 512;
+	// players at least this far below the surface without sky light count as underground when they are not exposed
+	private static final int UNDERGROUND_DEPTH = 8;
+	// small moves (walking through a cave) keep the previous result until the player moved further or the blocks changed
+	private static final int MAX_MOVE = 2;
+	// heightmaps can also change above the checked sections, so results are recomputed after this many updates
+	private static final int MAX_AGE = 20;
+	
+	private final Accessor accessor;
+	
+	private final long[] visited = new long[(SIZE * SIZE * SIZE + 63) >> 6];
+	private final int[] queue = new int[SIZE * SIZE * SIZE];
+	private final int[] surface = new int[SIZE * SIZE];
+	
+	private String lastDimension;
+	private int lastX;
+	private int lastY;
+	private int lastZ;
+	private long lastVersion = -1;
+	private int age = MAX_AGE;
+	
+	private boolean exposed;
+	private boolean underground;
+	
+	public Exposure(Accessor accessor) {
+		this.accessor = accessor;
+	}
+	
+	public void update() {
+		String dimension = accessor.getDimension();
+		int x = (int) Math.floor(accessor.getX());
+		int y = (int) Math.floor(accessor.getY());
+		int z = (int) Math.floor(accessor.getZ());
+		long version = getVersion(x, y, z);
+		
+		age++;
+		if(age < MAX_AGE && version == lastVersion && Math.abs(x - lastX) < MAX_MOVE && Math.abs(y - lastY) < MAX_MOVE && Math.abs(z - lastZ) < MAX_MOVE && dimension.equals(lastDimension)) return;
+		
+		lastDimension = dimension;
+		lastX = x;
+		lastY = y;
+		lastZ = z;
+		lastVersion = version;
+		age = 0;
+		
+		exposed = fill(x, y, z);
+		// rooms below high roofs still receive some sky light through their openings
+		underground = !exposed && y + UNDERGROUND_DEPTH <= getSurface(RADIUS, RADIUS, x, z) && accessor.getSkyLight(x, y + 1, z) == 0;
+	}
+	
+	public boolean isExposed() {
+		return exposed;
+	}
+	
+	public boolean isUnderground() {
+		return underground;
+	}
+	
+	// searches from the feet and head of the player for an open block at or above the surface of its column
+	private boolean fill(int x, int y, int z) {
+		Arrays.fill(visited, 0);
+		Arrays.fill(surface, Integer.MIN_VALUE);
+		
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = visit(RADIUS, RADIUS, RADIUS);
+		queue[tail++] = visit(RADIUS, RADIUS + 1, RADIUS);
+		
+		while(head < tail && head < MAX_VISITED) {
+			int index = queue[head++];
+			int dx = index / (SIZE * SIZE);
+			int dy = index / SIZE % SIZE;
+			int dz = index % SIZE;
+			int bx = x + dx - RADIUS;
+			int by = y + dy - RADIUS;
+			int bz = z + dz - RADIUS;
+			
+			if(by >= getSurface(dx, dz, bx, bz)) return true;
+			
+			tail = enqueue(dx - 1, dy, dz, bx - 1, by, bz, tail);
+			tail = enqueue(dx + 1, dy, dz, bx + 1, by, bz, tail);
+			tail = enqueue(dx, dy - 1, dz, bx, by - 1, bz, tail);
+			tail = enqueue(dx, dy + 1, dz, bx, by + 1, bz, tail);
+			tail = enqueue(dx, dy, dz - 1, bx, by, bz - 1, tail);
+			tail = enqueue(dx, dy, dz + 1, bx, by, bz + 1, tail);
+		}
+		return false;
+	}
+	
+	private int enqueue(int dx, int dy, int dz, int bx, int by, int bz, int tail) {
+		if(dx < 0 || dx >= SIZE || dy < 0 || dy >= SIZE || dz < 0 || dz >= SIZE) return tail;
+		
+		int index = (dx * SIZE + dy) * SIZE + dz;
+		if((visited[index >> 6] & (1L << index)) != 0) return tail;
+		visit(dx, dy, dz);
+		
+		if(accessor.isOpen(bx, by, bz)) queue[tail++] = index;
+		return tail;
+	}
+	
+	private int visit(int dx, int dy, int dz) {
+		int index = (dx * SIZE + dy) * SIZE + dz;
+		visited[index >> 6] |= 1L << index;
+		return index;
+	}
+	
+	// heightmap values are read at most once per column and fill
+	private int getSurface(int dx, int dz, int bx, int bz) {
+		int index = dx * SIZE + dz;
+		if(surface[index] == Integer.MIN_VALUE) surface[index] = accessor.getSurfaceY(bx, bz);
+		return surface[index];
+	}
+	
+	private long getVersion(int x, int y, int z) {
+		long version = 0;
+		for(int cx = (x - RADIUS) >> 4; cx <= (x + RADIUS) >> 4; cx++) {
+			for(int sy = (y - RADIUS) >> 4; sy <= (y + RADIUS) >> 4; sy++) {
+				for(int cz = (z - RADIUS) >> 4; cz <= (z + RADIUS) >> 4; cz++) {
+					long sectionVersion = accessor.getSectionVersion(cx, sy, cz);
+					if(sectionVersion == -1) return -1;
+					
+					version = version * 31 + sectionVersion;
+				}
+			}
+		}
+		return version;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+import java.util.Arrays;
+
+// open addressing int -> int counter, avoids boxing when counting blocks, biomes and entities per scan
+// keys are usually interned ids (see Ids), entries are kept when their count drops back to zero
+public final class Histogram {
+	private static final int EMPTY = Integer.MIN_VALUE;
+	
+	private int[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	
+	public Histogram() {
+		this(32);
+	}
+	
+	public Histogram(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+		keys = new int[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		Arrays.fill(keys, EMPTY);
+	}
+	
+	public Histogram(Histogram other) {
+		keys = other.keys.clone();
+		values = other.values.clone();
+		mask = other.mask;
+		size = other.size;
+	}
+	
+	public void add(int key, int amount) {
+		if(key == EMPTY) throw new IllegalArgumentException("Key out of range: "+key);
+		
+		int index = indexOf(key);
+		if(keys[index] == EMPTY) {
+			keys[index] = key;
+			values[index] = amount;
+			if(++size * 2 > keys.length) grow();
+		} else {
+			values[index] += amount;
+		}
+	}
+	
+	public void addAll(Histogram other) {
+		other.forEach(this::add);
+	}
+	
+	public int get(int key) {
+		int index = indexOf(key);
+		return keys[index] == key ? values[index] : 0;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public void clear() {
+		if(size == 0) return;
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+	
+	public int get(int[] keys) {
+		int count = 0;
+		for(int key : keys) {
+			count += get(key);
+		}
+		return count;
+	}
+	
+	// subtracting counts of a changed world can leave negative counts behind
+	public boolean hasNegative() {
+		for(int i=0; i<keys.length; i++) {
+			if(keys[i] != EMPTY && values[i] < 0) return true;
+		}
+		return false;
+	}
+	
+	public void forEach(EntryConsumer consumer) {
+		for(int i=0; i<keys.length; i++) {
+			if(keys[i] != EMPTY && values[i] != 0) consumer.accept(keys[i], values[i]);
+		}
+	}
+	
+	private int indexOf(int key) {
+		int hash = key * 0x9E3779B9;
+		int index = (hash ^ (hash >>> 16)) & mask;
+		while(keys[index] != EMPTY && keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+	
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		mask = keys.length - 1;
+		Arrays.fill(keys, EMPTY);
+		
+		for(int i=0; i<oldKeys.length; i++) {
+			if(oldKeys[i] != EMPTY) {
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+	
+	public static interface EntryConsumer {
+		public void accept(int key, int value);
+	}
+}
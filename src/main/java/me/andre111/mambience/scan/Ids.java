@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// interns registry ids (blocks, biomes, entities, ...) to small ints, used as keys for the scan histograms
+public final class Ids {
+	private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+	private static int count = 0;
+	
+	// blocks and biomes in unloaded chunks (see WorldReader.isKnown)
+	public static final int UNKNOWN = of("");
+	
+	public static int of(String name) {
+		Integer id = IDS.get(name);
+		if(id != null) return id;
+		
+		synchronized(Ids.class) {
+			id = IDS.get(name);
+			if(id != null) return id;
+			
+			IDS.put(name, count);
+			return count++;
+		}
+	}
+	
+	public static int[] of(Collection<String> names) {
+		return names.stream().mapToInt(Ids::of).toArray();
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+// scanned volume in world coordinates, biomes are sampled in a single layer at biomeY
+public final record ScanArea(String dimension, int x, int y, int z, int xSize, int ySize, int zSize, int biomeY) {
+	public int getBlockCount() {
+		return xSize * ySize * zSize;
+	}
+	
+	public int getBiomeCount() {
+		return xSize * zSize;
+	}
+	
+	public int minY() {
+		return Math.min(y, biomeY);
+	}
+	
+	public int maxY() {
+		return Math.max(y + ySize - 1, biomeY);
+	}
+}
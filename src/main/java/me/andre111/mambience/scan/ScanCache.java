@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// recently published scan results, shared between players scanning (almost) the same area
+final class ScanCache {
+	private static final int CLEANUP_INTERVAL = 64;
+	
+	private static final Map<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+	private static final AtomicInteger PUTS = new AtomicInteger();
+	
+	// returns the freshest result with the same size whose origin is at most distance blocks away on every axis
+	public static ScanResult find(ScanArea area, int distance, long maxAge) {
+		if(distance < 0) return null;
+		
+		// entries are stored in cells larger than the distance, so only the neighbouring cells need to be checked
+		int cellSize = distance + 1;
+		int cellX = Math.floorDiv(area.x(), cellSize);
+		int cellY = Math.floorDiv(area.y(), cellSize);
+		int cellZ = Math.floorDiv(area.z(), cellSize);
+		
+		long now = System.currentTimeMillis();
+		Entry best = null;
+		for(int cx = cellX-1; cx <= cellX+1; cx++) {
+			for(int cy = cellY-1; cy <= cellY+1; cy++) {
+				for(int cz = cellZ-1; cz <= cellZ+1; cz++) {
+					Entry entry = ENTRIES.get(new Key(area.dimension(), cellSize, cx, cy, cz));
+					if(entry == null || now - entry.time > maxAge) continue;
+					if(!matches(entry.result.area, area, distance)) continue;
+					
+					if(best == null || entry.time > best.time) best = entry;
+				}
+			}
+		}
+		return best != null ? best.result : null;
+	}
+	
+	public static void put(ScanResult result, int distance, long maxAge) {
+		if(distance < 0) return;
+		
+		int cellSize = distance + 1;
+		ScanArea area = result.area;
+		long now = System.currentTimeMillis();
+		ENTRIES.put(new Key(area.dimension(), cellSize, Math.floorDiv(area.x(), cellSize), Math.floorDiv(area.y(), cellSize), Math.floorDiv(area.z(), cellSize)), new Entry(result, now));
+		
+		if(PUTS.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+			ENTRIES.values().removeIf(entry -> now - entry.time > maxAge);
+		}
+	}
+	
+	private static boolean matches(ScanArea cached, ScanArea area, int distance) {
+		if(cached.xSize() != area.xSize() || cached.ySize() != area.ySize() || cached.zSize() != area.zSize()) return false;
+		
+		return Math.abs(cached.x() - area.x()) <= distance 
+				&& Math.abs(cached.y() - area.y()) <= distance 
+				&& Math.abs(cached.z() - area.z()) <= distance 
+				&& Math.abs(cached.biomeY() - area.biomeY()) <= distance;
+	}
+	
+	private static record Key(String dimension, int cellSize, int cellX, int cellY, int cellZ) {}
+	private static record Entry(ScanResult result, long time) {}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2024 Andre Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.andre111.mambience.scan;
+
+import me.andre111.mambience.accessor.WorldReader;
+
+// result of a single scan, never modified after being published to the Scanner
+final class ScanResult {
+	// incremental scans only track the moved slabs, so changes inside the remaining area are picked up by a regular full scan
+	private static final int FULL_SCAN_INTERVAL = 10;
+	
+	final ScanArea area;
+	final Histogram blockCount;
+	final Histogram biomeCount;
+	final Histogram entityCount;
+	// number of blocks by sky and block light (index skyLight << 4 | blockLight), the sky darkening changes over time and is only applied when reading
+	private long[] lightCounts = new long[256];
+	private double temperatureSum;
+	private int incrementalScans;
+	private int scannedColumns;
+	
+	private ScanResult(ScanArea area, Histogram blockCount, Histogram biomeCount, Histogram entityCount) {
+		this.area = area;
+		this.blockCount = blockCount;
+		this.biomeCount = biomeCount;
+		this.entityCount = entityCount;
+	}
+	
+	public static ScanResult empty(ScanArea area) {
+		ScanResult result = new ScanResult(area, new Histogram(), new Histogram(), new Histogram());
+		result.incrementalScans = FULL_SCAN_INTERVAL; // never continue from an empty result
+		return result;
+	}
+	
+	public static ScanResult scan(WorldReader world, ScanArea area, Histogram entityCount) {
+		ScanResult result = begin(area, entityCount);
+		result.scanSlice(world, area.xSize());
+		return result;
+	}
+	
+	// full scans can be split into slices of x columns (see scanSlice), the result must not be published before it is complete
+	public static ScanResult begin(ScanArea area, Histogram entityCount) {
+		return new ScanResult(area, new Histogram(), new Histogram(), entityCount);
+	}
+	
+	// scans the next slice of at most the given number of x columns, returns true once the whole area has been scanned
+	public boolean scanSlice(WorldReader world, int columns) {
+		int x = area.x() + scannedColumns;
+		int xs = Math.min(columns, area.xSize() - scannedColumns);
+		scanVolume(world, x, area.y(), area.z(), xs, area.ySize(), area.zSize(), 1);
+		scanColumns(world, x, area.z(), xs, area.zSize(), 1);
+		
+		scannedColumns += xs;
+		return scannedColumns >= area.xSize();
+	}
+	
+	// continues the previous result by only scanning the difference between both areas (see canShiftTo)
+	// falls back to a full scan when a removed or added slab touched unloaded chunks, as their contents were never counted consistently,
+	// or when the world changed in a way that removed more than was counted
+	public static ScanResult shift(WorldReader world, ScanResult previous, ScanArea area, Histogram entityCount) {
+		ScanResult result = new ScanResult(area, new Histogram(previous.blockCount), new Histogram(previous.biomeCount), entityCount);
+		result.lightCounts = previous.lightCounts.clone();
+		result.temperatureSum = previous.temperatureSum;
+		result.incrementalScans = previous.incrementalScans + 1;
+		
+		result.shiftVolume(world, previous.area);
+		result.shiftColumns(world, previous.area);
+		if(result.hasUnknown() || result.hasNegative()) return scan(world, area, entityCount);
+		return result;
+	}
+	
+	// reuses the (immutable) block and biome data of this result with a different set of entities
+	public ScanResult withEntities(Histogram entityCount) {
+		ScanResult result = new ScanResult(area, blockCount, biomeCount, entityCount);
+		result.lightCounts = lightCounts;
+		result.temperatureSum = temperatureSum;
+		result.incrementalScans = incrementalScans;
+		return result;
+	}
+	
+	public boolean canShiftTo(ScanArea next) {
+		if(incrementalScans >= FULL_SCAN_INTERVAL || hasUnknown()) return false;
+		if(!next.dimension().equals(area.dimension())) return false;
+		if(next.xSize() != area.xSize() || next.ySize() != area.ySize() || next.zSize() != area.zSize()) return false;
+		
+		// moves larger than the area share no blocks with the previous scan
+		return Math.abs(next.x() - area.x()) < area.xSize() && Math.abs(next.y() - area.y()) < area.ySize() && Math.abs(next.z() - area.z()) < area.zSize();
+	}
+	
+	// moves the previous area one axis at a time, removing the slab that was left and adding the one that was entered
+	private void shiftVolume(WorldReader world, ScanArea last) {
+		int xSize = area.xSize();
+		int ySize = area.ySize();
+		int zSize = area.zSize();
+		
+		int dx = area.x() - last.x();
+		if(dx != 0) {
+			scanVolume(world, dx > 0 ? last.x() : last.x() + xSize + dx, last.y(), last.z(), Math.abs(dx), ySize, zSize, -1);
+			scanVolume(world, dx > 0 ? last.x() + xSize : area.x(), last.y(), last.z(), Math.abs(dx), ySize, zSize, 1);
+		}
+		
+		int dy = area.y() - last.y();
+		if(dy != 0) {
+			scanVolume(world, area.x(), dy > 0 ? last.y() : last.y() + ySize + dy, last.z(), xSize, Math.abs(dy), zSize, -1);
+			scanVolume(world, area.x(), dy > 0 ? last.y() + ySize : area.y(), last.z(), xSize, Math.abs(dy), zSize, 1);
+		}
+		
+		int dz = area.z() - last.z();
+		if(dz != 0) {
+			scanVolume(world, area.x(), area.y(), dz > 0 ? last.z() : last.z() + zSize + dz, xSize, ySize, Math.abs(dz), -1);
+			scanVolume(world, area.x(), area.y(), dz > 0 ? last.z() + zSize : area.z(), xSize, ySize, Math.abs(dz), 1);
+		}
+	}
+	
+	private void shiftColumns(WorldReader world, ScanArea last) {
+		// biomes are sampled at the players height, so vertical movement requires resampling all columns
+		if(area.biomeY() != last.biomeY()) {
+			biomeCount.clear();
+			temperatureSum = 0;
+			scanColumns(world, area.x(), area.z(), area.xSize(), area.zSize(), 1);
+			return;
+		}
+		
+		int xSize = area.xSize();
+		int zSize = area.zSize();
+		
+		int dx = area.x() - last.x();
+		if(dx != 0) {
+			scanColumns(world, dx > 0 ? last.x() : last.x() + xSize + dx, last.z(), Math.abs(dx), zSize, -1);
+			scanColumns(world, dx > 0 ? last.x() + xSize : area.x(), last.z(), Math.abs(dx), zSize, 1);
+		}
+		
+		int dz = area.z() - last.z();
+		if(dz != 0) {
+			scanColumns(world, area.x(), dz > 0 ? last.z() : last.z() + zSize + dz, xSize, Math.abs(dz), -1);
+			scanColumns(world, area.x(), dz > 0 ? last.z() + zSize : area.z(), xSize, Math.abs(dz), 1);
+		}
+	}
+	
+	private void scanVolume(WorldReader world, int x, int y, int z, int xs, int ys, int zs, int sign) {
+		world.countBlocks(x, y, z, xs, ys, zs, (id, amount) -> blockCount.add(id, amount * sign));
+		world.sumLight(x, y, z, xs, ys, zs, (skyLight, blockLight, amount) -> lightCounts[skyLight << 4 | blockLight] += sign * amount);
+	}
+	
+	private void scanColumns(WorldReader world, int x, int z, int xs, int zs, int sign) {
+		world.countBiomes(x, area.biomeY(), z, xs, zs, (biome, temperature, amount) -> {
+			biomeCount.add(biome, amount * sign);
+			temperatureSum += sign * temperature * amount;
+		});
+	}
+	
+	private boolean hasUnknown() {
+		return blockCount.get(Ids.UNKNOWN) != 0 || biomeCount.get(Ids.UNKNOWN) != 0;
+	}
+	
+	private boolean hasNegative() {
+		if(blockCount.hasNegative() || biomeCount.hasNegative()) return true;
+		for(long count : lightCounts) {
+			if(count < 0) return true;
+		}
+		return false;
+	}
+	
+	// unloaded chunks are left out of all averages and percentages
+	public int getKnownBlockCount() {
+		return area.getBlockCount() - blockCount.get(Ids.UNKNOWN);
+	}
+	
+	public int getKnownBiomeCount() {
+		return area.getBiomeCount() - biomeCount.get(Ids.UNKNOWN);
+	}
+	
+	public double getAverageSkyLight() {
+		int known = getKnownBlockCount();
+		if(known <= 0) return 0;
+		
+		long sum = 0;
+		for(int i = 0; i < lightCounts.length; i++) {
+			sum += (i >> 4) * lightCounts[i];
+		}
+		return sum / (double) known;
+	}
+	
+	// light combined the same way as World.getLightLevel with the current sky darkening
+	public double getAverageLight(int ambientDarkness) {
+		int known = getKnownBlockCount();
+		if(known <= 0) return 0;
+		
+		long sum = 0;
+		for(int i = 0; i < lightCounts.length; i++) {
+			sum += Math.max(i & 15, (i >> 4) - ambientDarkness) * lightCounts[i];
+		}
+		return sum / (double) known;
+	}
+	
+	public double getAverageTemperature() {
+		int known = getKnownBiomeCount();
+		return known > 0 ? temperatureSum / known : 0;
+	}
+}
@@ -15,12 +15,23 @@
  */
 package me.andre111.mambience.scan;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import me.andre111.mambience.MAmbience;
 import me.andre111.mambience.accessor.Accessor;
+import me.andre111.mambience.accessor.WorldReader;
+import me.andre111.mambience.config.Config;
 
 public final class Scanner {
+	private static final ExecutorService ASYNC_EXECUTOR = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), runnable -> {
+		Thread thread = new Thread(runnable, "MAmbience Scanner");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final int MIN_INTERVAL = 5;
+	private static final int MAX_IDLE_BACKOFF = 4;
+	
 	private Accessor accessor;
 	private int xSize;
 	private int ySize;
@@ -28,14 +39,18 @@ public final class Scanner {
 	private int entityXSize;
 	private int entityYSize;
 	private int entityZSize;
-	private int currentYSize;
-	private Map<String, Integer> blockCount = new HashMap<>();
-	private Map<String, Integer> biomeCount = new HashMap<>();
-	private Map<String, Integer> entityCount = new HashMap<>();
-	private double averageSkyLight;
-	private double averageLight;
-	private double averageTemperature;
+	private volatile ScanResult result;
+	private volatile boolean asyncScanPending;
+	private ScanResult slicedScan;
 	private long lastScan;
+	private boolean queued;
+	
+	// player movement at the last scan, used to adapt the scan interval
+	private double lastScanX;
+	private double lastScanY;
+	private double lastScanZ;
+	private double lastScanRotation;
+	private int idleScans;
 	
 	public Scanner(Accessor a, int xs, int ys, int zs, int exs, int eys, int ezs) {
 		accessor = a;
@@ -45,69 +60,191 @@ public final class Scanner {
 		entityXSize = exs;
 		entityYSize = eys;
 		entityZSize = ezs;
-		currentYSize = ySize;
 
 		resetScanData();
 		lastScan = 0;
 	}
 	
-	public void performScan() {
-		if(!accessor.updatePlayerInstance()) return; // fixes server crashes, TODO: but this should never even happen
+	// returns whether a scan was started or continued
+	public boolean performScan() {
+		if(!accessor.updatePlayerInstance()) return false; // fixes server crashes, TODO: but this should never even happen
+		if(asyncScanPending) return false; // wait for the previous scan to be published
+		if(slicedScan != null) {
+			continueSlicedScan();
+			return true;
+		}
+		
+		idleScans = isIdle() ? idleScans + 1 : 0;
+		lastScanX = accessor.getX();
+		lastScanY = accessor.getY();
+		lastScanZ = accessor.getZ();
+		lastScanRotation = accessor.getRotation();
 		
 		int playerY = (int) accessor.getY();
 		
 		int startX = (int) accessor.getX() - xSize/2;
 		int startY = (int) accessor.getY() - ySize/2;
 		int startZ = (int) accessor.getZ() - zSize/2;
-		currentYSize = ySize;
+		int currentYSize = ySize;
 
 		//TODO - should this move or cut the scanned area?
-		if(startY < 0) {
-			currentYSize -= startY;
-			startY = 0;
+		int bottomY = accessor.getBottomY();
+		int topY = accessor.getTopY();
+		if(startY < bottomY) {
+			currentYSize -= bottomY - startY;
+			startY = bottomY;
 		}
-		if(startY+currentYSize > 256) {
-			currentYSize = 256 - startY;
+		if(startY+currentYSize > topY) {
+			currentYSize = topY - startY;
 		}
-
-		//Reset Scan Data
-		resetScanData();
-
+		ScanArea area = new ScanArea(accessor.getDimension(), startX, startY, startZ, xSize, currentYSize, zSize, playerY);
+		
+		// entities are always collected on the main thread
+		Histogram entityCount = new Histogram();
+		accessor.countEntities(accessor.getX(), accessor.getY(), accessor.getZ(), entityXSize, entityYSize, entityZSize, entityCount);
+		
+		// players standing close to each other can share the same scan
+		ScanResult shared = ScanCache.find(area, Config.scanner().getShareDistance(), getMaxShareAge());
+		if(shared != null) {
+			result = shared.withEntities(entityCount);
+			return true;
+		}
+		
+		ScanResult previous = result;
+		boolean incremental = Config.scanner().incrementalScans() && previous.canShiftTo(area);
+		
 		//Perform Scan
-		for(int xx=0; xx<xSize; xx++) {
-			for(int zz=0; zz<zSize; zz++) {
-				for(int yy=0; yy<currentYSize; yy++) {
-					String id = accessor.getBlock(startX+xx, startY+yy, startZ+zz);
-					blockCount.put(id, blockCount.containsKey(id) ? blockCount.get(id)+1 : 1);
-
-					averageSkyLight += accessor.getSkyLight(startX+xx, startY+yy, startZ+zz);
-					averageLight += accessor.getLight(startX+xx, startY+yy, startZ+zz);
-				}
-
-				String id = accessor.getBiome(startX+xx, playerY, startZ+zz);
-				biomeCount.put(id, biomeCount.containsKey(id) ? biomeCount.get(id)+1 : 1);
-
-				averageTemperature += accessor.getTemperature(startX+xx, playerY, startZ+zz);
+		if(Config.scanner().asyncScans()) {
+			WorldReader snapshot = createSnapshot(area, incremental ? previous.area : null);
+			if(snapshot != null) {
+				asyncScanPending = true;
+				ASYNC_EXECUTOR.execute(() -> {
+					try {
+						publish(scan(snapshot, previous, area, entityCount, incremental));
+					} catch(Exception e) {
+						MAmbience.getLogger().error("Exception during async scan: "+e);
+						e.printStackTrace();
+					} finally {
+						asyncScanPending = false;
+					}
+				});
+				return true;
 			}
 		}
-		accessor.getEntities(accessor.getX(), accessor.getY(), accessor.getZ(), entityXSize, entityYSize, entityZSize).forEach(entity -> {
-			if(!entityCount.containsKey(entity)) entityCount.put(entity, 1);
-			else entityCount.put(entity, entityCount.get(entity)+1);
-		});
-
-		averageSkyLight /= getScanBlockCount();
-		averageLight /= getScanBlockCount();
-
-		averageTemperature /= getScanBiomeCount();
+		
+		// large synchronous full scans are spread over multiple ticks, the previous result stays visible until the new one is complete
+		if(!incremental && area.getBlockCount() > Config.scanner().getSliceVolume()) {
+			slicedScan = ScanResult.begin(area, entityCount);
+			continueSlicedScan();
+			return true;
+		}
+		publish(scan(accessor, previous, area, entityCount, incremental));
+		return true;
+	}
+	
+	private void continueSlicedScan() {
+		// the accessor always reads the current world of the player
+		if(!accessor.getDimension().equals(slicedScan.area.dimension())) {
+			slicedScan = null;
+			return;
+		}
+		
+		int columns = Math.max(1, Config.scanner().getSliceVolume() / (slicedScan.area.ySize() * slicedScan.area.zSize()));
+		if(slicedScan.scanSlice(accessor, columns)) {
+			publish(slicedScan);
+			slicedScan = null;
+		}
+	}
+	
+	public boolean isScanInProgress() {
+		return slicedScan != null;
+	}
+	
+	private void publish(ScanResult scanResult) {
+		result = scanResult;
+		ScanCache.put(scanResult, Config.scanner().getShareDistance(), getMaxShareAge());
+	}
+	
+	// shared results are only reused until the next regular scan would have happened
+	private static long getMaxShareAge() {
+		return Config.scanner().getInterval() * 50L;
+	}
+	
+	private static ScanResult scan(WorldReader world, ScanResult previous, ScanArea area, Histogram entityCount, boolean incremental) {
+		return incremental ? ScanResult.shift(world, previous, area, entityCount) : ScanResult.scan(world, area, entityCount);
+	}
+	
+	private WorldReader createSnapshot(ScanArea area, ScanArea previousArea) {
+		int minX = area.x();
+		int minY = area.minY();
+		int minZ = area.z();
+		int maxX = area.x() + area.xSize() - 1;
+		int maxY = area.maxY();
+		int maxZ = area.z() + area.zSize() - 1;
+		
+		// incremental scans also read the slabs that were left since the previous scan
+		if(previousArea != null) {
+			minX = Math.min(minX, previousArea.x());
+			minY = Math.min(minY, previousArea.minY());
+			minZ = Math.min(minZ, previousArea.z());
+			maxX = Math.max(maxX, previousArea.x() + previousArea.xSize() - 1);
+			maxY = Math.max(maxY, previousArea.maxY());
+			maxZ = Math.max(maxZ, previousArea.z() + previousArea.zSize() - 1);
+		}
+		
+		return accessor.createSnapshot(minX, minY, minZ, maxX-minX+1, maxY-minY+1, maxZ-minZ+1);
+	}
+	
+	// scans of players that changed dimension or left their last scanned area are more urgent than regular rescans
+	// priorities above 1 mean the last scan no longer applies at all (see MAScheduler)
+	public int getPriority(long timer) {
+		ScanArea area = result.area;
+		if(!accessor.getDimension().equals(area.dimension())) return 3;
+		
+		if(Math.abs(accessor.getX() - (area.x() + area.xSize() / 2.0)) > area.xSize() / 2.0) return 2;
+		if(Math.abs(accessor.getY() - area.biomeY()) > area.ySize() / 2.0) return 2;
+		if(Math.abs(accessor.getZ() - (area.z() + area.zSize() / 2.0)) > area.zSize() / 2.0) return 2;
+		
+		// fast moving players would leave the inner half of their area within a regular interval
+		if(Config.scanner().adaptiveInterval() && getSpeed(timer) * Config.scanner().getInterval() > Math.min(xSize, zSize) / 2.0) return 1;
+		return 0;
+	}
+	
+	// adapts the scan interval to the players movement since the last scan:
+	// idle players back off up to the maximum interval, moving players are rescanned before crossing a quarter of the area
+	public int getInterval(long timer) {
+		int interval = Config.scanner().getInterval();
+		if(!Config.scanner().adaptiveInterval()) return interval;
+		
+		if(idleScans > 0 && isIdle()) {
+			return Math.max(interval, Math.min(Config.scanner().getMaxInterval(), interval << Math.min(idleScans, MAX_IDLE_BACKOFF)));
+		}
+		
+		double speed = getSpeed(timer);
+		if(speed <= 0) return interval;
+		return (int) Math.max(Math.min(MIN_INTERVAL, interval), Math.min(interval, Math.min(xSize, zSize) / 4.0 / speed));
+	}
+	
+	// blocks per tick since the last scan
+	private double getSpeed(long timer) {
+		double dx = accessor.getX() - lastScanX;
+		double dy = accessor.getY() - lastScanY;
+		double dz = accessor.getZ() - lastScanZ;
+		return Math.sqrt(dx*dx + dy*dy + dz*dz) / Math.max(1, timer - lastScan);
+	}
+	
+	// neither moved nor looked around noticeably since the last scan
+	private boolean isIdle() {
+		double dx = accessor.getX() - lastScanX;
+		double dy = accessor.getY() - lastScanY;
+		double dz = accessor.getZ() - lastScanZ;
+		double rotation = Math.abs(Math.IEEEremainder(accessor.getRotation() - lastScanRotation, Math.PI * 2));
+		return dx*dx + dy*dy + dz*dz < 1 && rotation < Math.PI / 4;
 	}
 	
 	public void resetScanData() {
-		blockCount.clear();
-		biomeCount.clear();
-		entityCount.clear();
-		averageSkyLight = 0;
-		averageLight = 0;
-		averageTemperature = 0;
+		slicedScan = null;
+		result = ScanResult.empty(new ScanArea("", 0, 0, 0, xSize, ySize, zSize, 0));
 	}
 	
 	public int getxSize() {
@@ -130,28 +267,37 @@ public final class Scanner {
 	}
 	
 	public int getScanBlockCount() {
-		return xSize * currentYSize * zSize;
+		return result.getKnownBlockCount();
 	}
-	public Map<String, Integer> getScanBlockData() {
-		return blockCount;
+	public Histogram getScanBlockData() {
+		return result.blockCount;
 	}
 	public int getScanBiomeCount() {
-		return xSize * zSize;
+		return result.getKnownBiomeCount();
+	}
+	public Histogram getScanBiomeData() {
+		return result.biomeCount;
 	}
-	public Map<String, Integer> getScanBiomeData() {
-		return biomeCount;
+	// the count and the total have to come from the same result, as async scans can publish a new one at any time
+	public float getScanBlockPercentage(int[] blocks) {
+		ScanResult current = result;
+		return current.blockCount.get(blocks) / (float) current.getKnownBlockCount();
 	}
-	public Map<String, Integer> getScanEntityData() {
-		return entityCount;
+	public float getScanBiomePercentage(int[] biomes) {
+		ScanResult current = result;
+		return current.biomeCount.get(biomes) / (float) current.getKnownBiomeCount();
+	}
+	public Histogram getScanEntityData() {
+		return result.entityCount;
 	}
 	public double getAverageSkyLight() {
-		return averageSkyLight;
+		return result.getAverageSkyLight();
 	}
 	public double getAverageLight() {
-		return averageLight;
+		return result.getAverageLight(accessor.getAmbientDarkness());
 	}
 	public double getAverageTemperature() {
-		return averageTemperature;
+		return result.getAverageTemperature();
 	}
 
 	public long getLastScan() {
@@ -160,4 +306,10 @@ public final class Scanner {
 	public void setLastScan(long lastScan) {
 		this.lastScan = lastScan;
 	}
+	public boolean isQueued() {
+		return queued;
+	}
+	public void setQueued(boolean queued) {
+		this.queued = queued;
+	}
 }
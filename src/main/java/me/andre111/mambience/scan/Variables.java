@@ -15,88 +15,182 @@
  */
 package me.andre111.mambience.scan;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import me.andre111.mambience.accessor.Accessor;
 
+// values are stored in primitive arrays indexed by Slot, which conditions resolve once when they are loaded
+// they are only computed on their first access in a tick, except for tracked slots whose previous value is needed
 public final class Variables {
+	private static final boolean[] TRACKED = new boolean[Slot.VALUES.length];
+	private static final boolean[] USED = new boolean[Slot.VALUES.length];
+	
 	private final Accessor accessor;
 	private final Scanner scanner;
+	private final Exposure exposure;
 	
-	private final Map<String, Object> values = new HashMap<>();
-	private final Map<String, Object> previousValues = new HashMap<>();
+	// NaN until the first update, so every variable counts as changed once and no range matches the missing previous value
+	private double[] values = new double[Slot.VALUES.length];
+	private double[] previousValues = new double[Slot.VALUES.length];
+	private final boolean[] computed = new boolean[Slot.VALUES.length];
 	
 	public Variables(Accessor a, Scanner s) {
 		accessor = a;
 		scanner = s;
+		exposure = new Exposure(a);
+		
+		Arrays.fill(values, Double.NaN);
+		Arrays.fill(previousValues, Double.NaN);
+	}
+	
+	// called by conditions while loading data, previous has to be set when they read the previous value or changes of the slot
+	public static void track(Slot slot, boolean previous) {
+		USED[slot.ordinal()] = true;
+		if(previous) TRACKED[slot.ordinal()] = true;
+	}
+	
+	public static void resetTracked() {
+		Arrays.fill(TRACKED, false);
+		Arrays.fill(USED, false);
 	}
 	
 	public void update() {
-		put("x", accessor.getX());
-		put("y", accessor.getY());
-		put("z", accessor.getZ());
+		double[] swap = previousValues;
+		previousValues = values;
+		values = swap;
+		Arrays.fill(computed, false);
+		
+		// tracked slots are computed every tick, so their previous value is always from the last tick
+		for(Slot slot : Slot.VALUES) {
+			if(TRACKED[slot.ordinal()]) get(slot);
+		}
+	}
+	
+	// computes every slot used by the loaded conditions, afterwards they can be evaluated without accessing the world
+	// (used before updating events off the main thread)
+	public void computeUsed() {
+		for(Slot slot : Slot.VALUES) {
+			if(USED[slot.ordinal()]) get(slot);
+		}
+	}
+	
+	// the held items can change within a tick (hotbar swaps), events triggered by player actions read them again
+	public void refreshHeldItems() {
+		computed[Slot.ITEM_MAIN_HAND.ordinal()] = false;
+		computed[Slot.ITEM_OFF_HAND.ordinal()] = false;
+	}
+	
+	public double get(Slot slot) {
+		int index = slot.ordinal();
+		if(!computed[index]) {
+			values[index] = compute(slot);
+			computed[index] = true;
+		}
+		return values[index];
+	}
+	
+	public double getPrevious(Slot slot) {
+		return previousValues[slot.ordinal()];
+	}
+	
+	// booleans are stored as 0/1 and strings as their interned id (see Ids)
+	private double compute(Slot slot) {
+		return switch(slot) {
+		case X -> accessor.getX();
+		case Y -> accessor.getY();
+		case Z -> accessor.getZ();
 		
-		put("health", accessor.getHealth());
-		put("foodLevel", accessor.getFoodLevel());
+		case HEALTH -> accessor.getHealth();
+		case FOOD_LEVEL -> accessor.getFoodLevel();
 		
-		put("sneaking", accessor.isSneaking());
-		put("jumping", accessor.isJumping());
-		put("onGround", accessor.isOnGround());
+		case SNEAKING -> bool(accessor.isSneaking());
+		case JUMPING -> bool(accessor.isJumping());
+		case ON_GROUND -> bool(accessor.isOnGround());
 		
-		boolean exposed = fastExposedCheck(accessor);
-		//TODO: Slower more accurate exposed check
-		//if(exposed) exposed = slowExposedCheck(accessor);
-		put("exposed", exposed);
-		put("underground", !exposed && accessor.getY() < 56);
-		put("submerged", accessor.isSubmerged());
+		case EXPOSED -> {
+			exposure.update();
+			yield bool(exposure.isExposed());
+		}
+		case UNDERGROUND -> {
+			get(Slot.EXPOSED); // updates the exposure once per tick
+			yield bool(exposure.isUnderground());
+		}
+		case SUBMERGED -> bool(accessor.isSubmerged());
 		
-		put("time", accessor.getDayTime());
-		put("raining", accessor.isRaining());
-		put("thundering", accessor.isThundering());
+		case TIME -> accessor.getDayTime();
+		case RAINING -> bool(accessor.isRaining());
+		case THUNDERING -> bool(accessor.isThundering());
 		
-		put("itemMainHand", accessor.getHeldItem(true));
-		put("itemOffHand", accessor.getHeldItem(false));
+		case ITEM_MAIN_HAND -> Ids.of(accessor.getHeldItem(true));
+		case ITEM_OFF_HAND -> Ids.of(accessor.getHeldItem(false));
 		
-		put("temperature", scanner.getAverageTemperature());
-		put("avgLight", scanner.getAverageLight());
-		put("avgSkyLight", scanner.getAverageSkyLight());
-	}
-	
-	public Object get(String key) {
-		return values.get(key);
+		case TEMPERATURE -> scanner.getAverageTemperature();
+		case AVG_LIGHT -> scanner.getAverageLight();
+		case AVG_SKY_LIGHT -> scanner.getAverageSkyLight();
+		};
 	}
 	
-	public Object getPrevious(String key) {
-		return previousValues.get(key);
+	private static double bool(boolean value) {
+		return value ? 1 : 0;
 	}
 	
-	private void put(String key, Object value) {
-		previousValues.put(key, values.put(key, value));
+	public static enum Type {
+		NUMBER,
+		BOOLEAN,
+		STRING;
 	}
 	
-	private static boolean fastExposedCheck(Accessor accessor) {
-		int x = (int) accessor.getX();
-		int y = (int) accessor.getY();
-		int z = (int) accessor.getZ();
+	public static enum Slot {
+		X("x", Type.NUMBER),
+		Y("y", Type.NUMBER),
+		Z("z", Type.NUMBER),
+		HEALTH("health", Type.NUMBER),
+		FOOD_LEVEL("foodLevel", Type.NUMBER),
+		SNEAKING("sneaking", Type.BOOLEAN),
+		JUMPING("jumping", Type.BOOLEAN),
+		ON_GROUND("onGround", Type.BOOLEAN),
+		EXPOSED("exposed", Type.BOOLEAN),
+		UNDERGROUND("underground", Type.BOOLEAN),
+		SUBMERGED("submerged", Type.BOOLEAN),
+		TIME("time", Type.NUMBER),
+		RAINING("raining", Type.BOOLEAN),
+		THUNDERING("thundering", Type.BOOLEAN),
+		ITEM_MAIN_HAND("itemMainHand", Type.STRING),
+		ITEM_OFF_HAND("itemOffHand", Type.STRING),
+		TEMPERATURE("temperature", Type.NUMBER),
+		AVG_LIGHT("avgLight", Type.NUMBER),
+		AVG_SKY_LIGHT("avgSkyLight", Type.NUMBER);
+		
+		private static final Slot[] VALUES = values();
+		private static final Map<String, Slot> BY_NAME = new HashMap<>();
+		static {
+			for(Slot slot : VALUES) {
+				BY_NAME.put(slot.name, slot);
+			}
+		}
+		
+		private final String name;
+		private final Type type;
+		
+		private Slot(String name, Type type) {
+			this.name = name;
+			this.type = type;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public Type getType() {
+			return type;
+		}
 		
-		int mx = x + 1;
-        int my = y + 1;
-        int mz = z + 1;
-        
-        for (int cx = mx - 2; cx <= mx; cx++) {
-            for (int cy = my - 2; cy <= my; cy++) {
-                for (int cz = mz - 2; cz <= mz; cz++) {
-                    if (!accessor.getBlock(cx, cy, cz).equals("minecraft:air"))
-                        continue;
-                    if (accessor.getSkyLight(cx, cy, cz) > 4) // increased from 0
-                        return true;
-                }
-            }
-        }
-        return false;
+		public static Slot byName(String name) {
+			Slot slot = BY_NAME.get(name);
+			if(slot == null) throw new IllegalArgumentException("Unknown variable: "+name);
+			return slot;
+		}
 	}
-	//private static boolean slowExposedCheck(Accessor accessor) {
-		//TODO: start from x,y,z (and x,y+1,z) and search horizontally outwards (up to ? blocks) through "open" blocks - then scan upwards for sky access from all found locations
-	//}
 }
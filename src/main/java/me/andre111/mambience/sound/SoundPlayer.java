@@ -15,6 +15,7 @@
  */
 package me.andre111.mambience.sound;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -26,13 +27,26 @@ public class SoundPlayer {
 	private final Accessor accessor;
 	private final MALogger logger;
 	private final List<ScheduledSound> scheduledSounds = new LinkedList<>();
+	private final List<String> stoppedSounds = new ArrayList<>();
+	// buffered sound players only collect sounds until their next update, used while events are updated off the main thread
+	private boolean buffered = false;
 	
 	public SoundPlayer(Accessor accessor, MALogger logger) {
 		this.accessor = accessor;
 		this.logger = logger;
 	}
 	
+	public void setBuffered(boolean buffered) {
+		this.buffered = buffered;
+	}
+	
 	public void update() {
+		// process stopped sounds
+		for(String sound : stoppedSounds) {
+			accessor.stopSound(sound);
+		}
+		stoppedSounds.clear();
+		
 		// process scheduled sounds
 		long time = System.currentTimeMillis();
 		Iterator<ScheduledSound> iter = scheduledSounds.iterator();
@@ -55,8 +69,8 @@ public class SoundPlayer {
 		float volume = sound.calculateRandomVolume();
 		float pitch = sound.calculateRandomPitch();
 		
-		// schedule if delay > 0
-		if(sound.delay() > 0) {
+		// schedule if delay > 0 or buffered
+		if(sound.delay() > 0 || buffered) {
 			scheduledSounds.add(new ScheduledSound(sound.name(), x, y, z, volume, pitch, global, sound.delay(), System.currentTimeMillis()));
 		} else {
 			logger.log("Play "+sound.name());
@@ -65,5 +79,10 @@ public class SoundPlayer {
 		}
 	}
 	
+	public void stopSound(String sound) {
+		if(buffered) stoppedSounds.add(sound);
+		else accessor.stopSound(sound);
+	}
+	
 	private static record ScheduledSound(String name, double x, double y, double z, float volume, float pitch, boolean global, int delay, long startTime) {}
 }